@@ -0,0 +1,77 @@
+package ru.practicum.shareit.benchmark;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.CreatingBookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * создание бронирования без кэша и с кэшем пользователей и вещей; в конце прогона выводится среднее число
+ * SQL-запросов на одно бронирование
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BookingCreationBenchmark {
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(1).withNano(0);
+
+    @Param({"none", "caffeine"})
+    private String cache;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private Statistics statistics;
+    private long bookings;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run("--spring.cache.type=" + cache,
+                        "--spring.jpa.properties.hibernate.generate_statistics=true",
+                        "--logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN");
+        bookingService = context.getBean(BookingService.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('owner', 'owner@shareit.ru'), " +
+                "('booker', 'booker@shareit.ru')");
+        jdbcTemplate.update("INSERT INTO items (name, description, available, owner_id) " +
+                "VALUES ('item', 'item', true, 1)");
+        statistics.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%ncache=%s: %.1f statements per booking%n", cache,
+                (double) statistics.getPrepareStatementCount() / bookings);
+        context.close();
+    }
+
+    /**
+     * создание бронирования на следующий свободный час
+     */
+    @Benchmark
+    public BookingDto create() {
+        LocalDateTime start = START.plusHours(bookings++);
+        return bookingService.create(2L, CreatingBookingDto.builder()
+                .itemId(1L)
+                .start(start)
+                .end(start.plusMinutes(30))
+                .build());
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.service.BookingService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * сравнение постраничной выборки бронирований пользователя: OFFSET против курсора на одной и той же глубине
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BookingPaginationBenchmark {
+    private static final int PAGE_SIZE = 20;
+    private static final int BOOKINGS = 200_000;
+
+    @Param({"0", "1000", "100000"})
+    private int from;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private KeysetCursor cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run();
+        bookingService = context.getBean(BookingService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('owner', 'owner@shareit.ru'), " +
+                "('booker', 'booker@shareit.ru')");
+        jdbcTemplate.update("INSERT INTO items (name, description, available, owner_id) " +
+                "VALUES ('item', 'item', true, 1)");
+        jdbcTemplate.update("INSERT INTO bookings (start_date, end_date, item_id, booker_id, status) " +
+                "SELECT DATEADD('HOUR', X, TIMESTAMP '2020-01-01 00:00:00'), " +
+                "DATEADD('HOUR', X + 1, TIMESTAMP '2020-01-01 00:00:00'), 1, 2, 'APPROVED' " +
+                "FROM SYSTEM_RANGE(1, " + BOOKINGS + ")");
+        if (from > 0) {
+            List<BookingDto> previous = bookingService.findAllByUser(2L, BookingState.ALL, from - 1, 1);
+            BookingDto last = previous.get(0);
+            cursor = KeysetCursor.of(last.getStart(), last.getId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * страница через OFFSET
+     */
+    @Benchmark
+    public List<BookingDto> offsetPage() {
+        return bookingService.findAllByUser(2L, BookingState.ALL, from, PAGE_SIZE);
+    }
+
+    /**
+     * та же страница через курсор
+     */
+    @Benchmark
+    public List<BookingDto> keysetPage() {
+        return bookingService.findAllByUser(2L, BookingState.ALL, from, PAGE_SIZE, cursor);
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.service.BookingService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * первая страница бронирований автора и владельца для каждого варианта выборки
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BookingServiceBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+    private BookingState state;
+
+    private BookingService bookingService;
+
+    @Setup(Level.Trial)
+    public void setUp(ServerDataset dataset) {
+        bookingService = dataset.getBean(BookingService.class);
+    }
+
+    @Benchmark
+    public List<BookingDto> findAllByUser(ServerDataset dataset) {
+        return bookingService.findAllByUser(dataset.nextUserId(), state, 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<BookingDto> findAllByOwner(ServerDataset dataset) {
+        return bookingService.findAllByOwner(dataset.nextUserId(), state, 0, PAGE_SIZE);
+    }
+}
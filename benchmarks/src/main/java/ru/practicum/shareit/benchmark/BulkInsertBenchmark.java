@@ -0,0 +1,124 @@
+package ru.practicum.shareit.benchmark;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * вставка 10 000 бронирований и 10 000 комментариев одной транзакцией при выделении id по одному
+ * (allocationSize=1) и блоками, без пакетов JDBC (batchSize=1) и с пакетами; allocationSize=1 и batchSize=1
+ * соответствуют прежней вставке с id из IDENTITY. Результат - строк в секунду; в конце прогона выводится
+ * среднее число подготовленных SQL-запросов на строку
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(BulkInsertBenchmark.ROWS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BulkInsertBenchmark {
+    static final int ROWS = 10_000;
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(1).withNano(0);
+
+    @Param({"1", "50"})
+    private int allocationSize;
+    @Param({"1", "50"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private BookingRepository bookingRepository;
+    private CommentRepository commentRepository;
+    private JdbcTemplate jdbcTemplate;
+    private Statistics statistics;
+    private long rows;
+    private Item item;
+    private User user;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run("--shareit.id.allocation-size=" + allocationSize,
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "--spring.jpa.properties.hibernate.generate_statistics=true",
+                        "--logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN");
+        bookingRepository = context.getBean(BookingRepository.class);
+        commentRepository = context.getBean(CommentRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('user', 'user@shareit.ru')");
+        long userId = jdbcTemplate.queryForObject("SELECT id FROM users", Long.class);
+        jdbcTemplate.update("INSERT INTO items (name, description, available, owner_id) " +
+                "VALUES ('item', 'item', true, ?)", userId);
+        long itemId = jdbcTemplate.queryForObject("SELECT id FROM items", Long.class);
+        user = new User(userId, "user", "user@shareit.ru");
+        item = Item.builder().id(itemId).build();
+        statistics.clear();
+    }
+
+    @TearDown(Level.Invocation)
+    public void clearRows() {
+        jdbcTemplate.update("TRUNCATE TABLE bookings");
+        jdbcTemplate.update("TRUNCATE TABLE comments");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%nallocationSize=%d, batchSize=%d: %.2f statements per row%n", allocationSize,
+                batchSize, (double) statistics.getPrepareStatementCount() / rows);
+        context.close();
+    }
+
+    @Benchmark
+    public void insertBookings() {
+        List<Booking> bookings = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            LocalDateTime start = START.plusHours(i);
+            bookings.add(Booking.builder()
+                    .start(start)
+                    .end(start.plusMinutes(30))
+                    .item(item)
+                    .booker(user)
+                    .status(BookingStatus.APPROVED)
+                    .build());
+        }
+        bookingRepository.saveAll(bookings);
+        rows += ROWS;
+    }
+
+    @Benchmark
+    public void insertComments() {
+        List<Comment> comments = new ArrayList<>(ROWS);
+        LocalDateTime created = LocalDateTime.now();
+        for (int i = 0; i < ROWS; i++) {
+            comments.add(Comment.builder()
+                    .text("comment " + i)
+                    .item(item)
+                    .author(user)
+                    .created(created)
+                    .build());
+        }
+        commentRepository.saveAll(comments);
+        rows += ROWS;
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * сравнение обработки тела ответа сервера в шлюзе: разбор в дерево объектов Jackson с повторной сериализацией
+ * против передачи байтов как есть (для оценки выделения памяти запускать с -prof gc)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class GatewayPassThroughBenchmark {
+    private static final String BOOKING = "{\"id\":%d,\"start\":\"2022-09-01T10:00:00\"," +
+            "\"end\":\"2022-09-02T10:00:00\",\"status\":\"APPROVED\",\"booker\":{\"id\":2,\"name\":\"booker\"," +
+            "\"email\":\"booker@shareit.ru\"},\"item\":{\"id\":1,\"name\":\"Дрель\",\"description\":\"Простая дрель\"," +
+            "\"available\":true}}";
+    private static final String ITEM = "{\"id\":%d,\"name\":\"Дрель\",\"description\":\"Простая дрель\"," +
+            "\"available\":true,\"requestId\":null,\"lastBooking\":{\"id\":1,\"bookerId\":2}," +
+            "\"nextBooking\":{\"id\":3,\"bookerId\":2},\"comments\":[{\"id\":1,\"text\":\"Отличная дрель\"," +
+            "\"authorName\":\"booker\",\"created\":\"2022-09-03T10:00:00\"}]}";
+
+    @Param({"bookings", "items"})
+    private String resource;
+    @Param({"20", "1000"})
+    private int size;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private byte[] body;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String element = resource.equals("bookings") ? BOOKING : ITEM;
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 1; i <= size; i++) {
+            if (i > 1) {
+                json.append(',');
+            }
+            json.append(String.format(element, i));
+        }
+        body = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * прежний путь: ResponseEntity&lt;Object&gt; (дерево LinkedHashMap) и повторная сериализация в ответ шлюза
+     */
+    @Benchmark
+    public byte[] jacksonTree() throws IOException {
+        Object tree = mapper.readValue(body, Object.class);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        mapper.writeValue(out, tree);
+        return out.toByteArray();
+    }
+
+    /**
+     * передача тела как массива байтов
+     */
+    @Benchmark
+    public byte[] passThrough() throws IOException {
+        byte[] received = body.clone();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(received.length);
+        out.write(received);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,106 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoForItemDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.service.BookingService;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * поиск последнего и следующего бронирований вещи: загрузка всей истории бронирований против двух чтений по индексу
+ * (половина бронирований вещи в прошлом, половина в будущем)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ItemBookingPointersBenchmark {
+
+    @Param({"100", "10000"})
+    private int bookings;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private BookingMapper bookingMapper;
+    private EntityManagerFactory entityManagerFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run();
+        bookingService = context.getBean(BookingService.class);
+        bookingMapper = context.getBean(BookingMapper.class);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('owner', 'owner@shareit.ru'), " +
+                "('booker', 'booker@shareit.ru')");
+        jdbcTemplate.update("INSERT INTO items (name, description, available, owner_id) " +
+                "VALUES ('item', 'item', true, 1)");
+        jdbcTemplate.update("INSERT INTO bookings (start_date, end_date, item_id, booker_id, status) " +
+                "SELECT DATEADD('HOUR', X - " + bookings / 2 + ", CURRENT_TIMESTAMP), " +
+                "DATEADD('MINUTE', 30, DATEADD('HOUR', X - " + bookings / 2 + ", CURRENT_TIMESTAMP)), " +
+                "1, 2, 'APPROVED' FROM SYSTEM_RANGE(1, " + bookings + ")");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * прежний способ: все бронирования вещи в dto с вложенными вещью и пользователем, сортировка и обход списка
+     */
+    @Benchmark
+    public BookingDtoForItemDto[] fullHistory() {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            List<BookingDto> list = em.createQuery("select b from Booking as b where b.item.id = 1", Booking.class)
+                    .getResultList().stream()
+                    .map(bookingMapper::toBookingDto)
+                    .sorted((o1, o2) -> o2.getStart().compareTo(o1.getStart()))
+                    .collect(Collectors.toList());
+            BookingDtoForItemDto[] result = new BookingDtoForItemDto[2];
+            for (int i = list.size() - 1; i >= 0; i--) {
+                if (list.get(i).getStart().isAfter(LocalDateTime.now())) {
+                    result[1] = bookingMapper.toBookingForItemDto(list.get(i));
+                    if (i != list.size() - 1) {
+                        result[0] = bookingMapper.toBookingForItemDto(list.get(i + 1));
+                    }
+                }
+            }
+            return result;
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * текущий способ: последнее и следующее бронирования двумя чтениями по индексу
+     */
+    @Benchmark
+    public BookingDtoForItemDto[] pointers() {
+        List<Long> itemIds = List.of(1L);
+        LocalDateTime now = LocalDateTime.now();
+        return new BookingDtoForItemDto[]{
+                bookingService.findLastByItemIds(itemIds, now).get(1L),
+                bookingService.findNextByItemIds(itemIds, now).get(1L)
+        };
+    }
+}
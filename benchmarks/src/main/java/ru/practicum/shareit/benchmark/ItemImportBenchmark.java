@@ -0,0 +1,103 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoReader;
+import ru.practicum.shareit.item.dto.ItemImportDto;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * массовый импорт 100 000 вещей из JSON-массива и NDJSON: разбор тела и вставка пакетами JDBC при выделении id
+ * по одному (allocationSize=1) и блоками; результат - вещей в секунду
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(ItemImportBenchmark.ITEMS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ItemImportBenchmark {
+    static final int ITEMS = 100_000;
+    private static final int REQUESTS = 1000;
+
+    @Param({"json", "ndjson"})
+    private String format;
+    @Param({"1", "50"})
+    private int allocationSize;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private ObjectMapper objectMapper;
+    private JdbcTemplate jdbcTemplate;
+    private byte[] body;
+    private List<Long> requestIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run("--shareit.id.allocation-size=" + allocationSize);
+        itemService = context.getBean(ItemService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('owner', 'owner@shareit.ru')");
+        jdbcTemplate.update("INSERT INTO requests (description, requester_id, created) " +
+                "SELECT 'request ' || X, 1, TIMESTAMP '2022-01-01 00:00:00' FROM SYSTEM_RANGE(1, " + REQUESTS + ")");
+        // при allocationSize > 1 id запросов из последовательности идут с шагом блока
+        requestIds = jdbcTemplate.queryForList("SELECT id FROM requests ORDER BY id", Long.class);
+        body = body();
+    }
+
+    @TearDown(Level.Invocation)
+    public void clearItems() {
+        jdbcTemplate.update("TRUNCATE TABLE items");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ItemImportDto importItems() throws IOException {
+        try (ItemDtoReader items = new ItemDtoReader(objectMapper, new ByteArrayInputStream(body))) {
+            return itemService.importItems(1L, items);
+        }
+    }
+
+    /**
+     * тело запроса импорта: каждая десятая вещь создана по запросу
+     */
+    private byte[] body() throws IOException {
+        boolean ndjson = format.equals("ndjson");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(ndjson ? ' ' : '[');
+        for (int i = 1; i <= ITEMS; i++) {
+            if (i > 1) {
+                out.write(ndjson ? '\n' : ',');
+            }
+            out.write(objectMapper.writeValueAsBytes(ItemDto.builder()
+                    .name("item " + i)
+                    .description("thing " + i)
+                    .available(i % 20 != 0)
+                    .requestId(i % 10 == 0 ? requestIds.get(i / 10 % REQUESTS) : null)
+                    .build()));
+        }
+        out.write(ndjson ? '\n' : ']');
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.requests.dto.ItemRequestDto;
+import ru.practicum.shareit.requests.service.ItemRequestService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * страница запросов других пользователей вместе с вещами, созданными по ним
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ItemRequestServiceBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"0", "1000"})
+    private int from;
+
+    private ItemRequestService requestService;
+
+    @Setup(Level.Trial)
+    public void setUp(ServerDataset dataset) {
+        requestService = dataset.getBean(ItemRequestService.class);
+    }
+
+    @Benchmark
+    public List<ItemRequestDto> findAllOnPage(ServerDataset dataset) {
+        return requestService.findAllOnPage(dataset.nextUserId(), from, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * страница вещей владельца с бронированиями и комментариями и страница результатов поиска
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ItemServiceBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    private ItemService itemService;
+
+    @Setup(Level.Trial)
+    public void setUp(ServerDataset dataset) {
+        itemService = dataset.getBean(ItemService.class);
+    }
+
+    @Benchmark
+    public List<ItemDto> getAllByUserId(ServerDataset dataset) {
+        return itemService.getAllByUserId(dataset.nextUserId(), 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<ItemDto> search() {
+        return itemService.search(ServerDataset.SEARCH_TEXT, 0, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.requests.dto.ItemRequestDto;
+import ru.practicum.shareit.requests.dto.ItemRequestMapper;
+import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * преобразование страницы объектов в dto без обращения к БД
+ * (маппер вещей обращается к репозиториям только при создании вещи из dto, здесь они не нужны)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"20", "1000"})
+    private int size;
+
+    private final ItemMapper itemMapper = new ItemMapper(null);
+    private final BookingMapper bookingMapper = new BookingMapper(itemMapper);
+    private final CommentMapper commentMapper = new CommentMapper();
+    private final ItemRequestMapper requestMapper = new ItemRequestMapper();
+    private final List<Booking> bookings = new ArrayList<>();
+    private final List<Item> items = new ArrayList<>();
+    private final List<Comment> comments = new ArrayList<>();
+    private final List<ItemRequest> requests = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        for (long i = 1; i <= size; i++) {
+            User owner = new User(i, "owner " + i, "owner" + i + "@shareit.ru");
+            User booker = new User(i + size, "booker " + i, "booker" + i + "@shareit.ru");
+            ItemRequest request = new ItemRequest(i, "request " + i, booker, now);
+            Item item = new Item(i, "item " + i, "description " + i, true, owner, request);
+            requests.add(request);
+            items.add(item);
+            bookings.add(new Booking(i, now.plusDays(i), now.plusDays(i + 1), item, booker, BookingStatus.WAITING));
+            comments.add(new Comment(i, "comment " + i, item, booker, now));
+        }
+    }
+
+    @Benchmark
+    public List<BookingDto> toBookingDto() {
+        return bookings.stream().map(bookingMapper::toBookingDto).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<ItemDto> toItemDto() {
+        return items.stream().map(itemMapper::toItemDto).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<CommentDto> toCommentDto() {
+        return comments.stream().map(commentMapper::toCommentDto).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<ItemRequestDto> toItemRequestDto() {
+        return requests.stream().map(requestMapper::toItemRequestDto).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItServer;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * сервер на встроенной H2 с синтетическим набором данных заданного размера
+ * (содержимое однозначно определяется размерами, поэтому повторные запуски работают с теми же данными:
+ * у пользователя x - вещи x, x + users, ..., каждая десятая вещь создана по запросу, каждая сотая
+ * находится поиском по SEARCH_TEXT, у каждой вещи один комментарий, бронирования равномерно распределены
+ * по вещам и пользователям, половина из них в прошлом)
+ */
+@State(Scope.Benchmark)
+public class ServerDataset {
+    public static final String SEARCH_TEXT = "drill";
+
+    @Param({"10000"})
+    private int users;
+    @Param({"100000"})
+    private int items;
+    @Param({"1000000"})
+    private int bookings;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run();
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO users (name, email) " +
+                "SELECT 'user ' || X, 'user' || X || '@shareit.ru' FROM SYSTEM_RANGE(1, " + users + ")");
+        jdbcTemplate.update("INSERT INTO requests (description, requester_id, created) " +
+                "SELECT 'request ' || X, 1 + MOD(X * 31, " + users + "), " +
+                "DATEADD('MINUTE', X, TIMESTAMP '2022-01-01 00:00:00') FROM SYSTEM_RANGE(1, " + items / 10 + ")");
+        jdbcTemplate.update("INSERT INTO items (name, description, available, owner_id, request_id) " +
+                "SELECT 'item ' || X, " +
+                "CASE WHEN MOD(X, 100) = 0 THEN 'cordless " + SEARCH_TEXT + " ' || X ELSE 'thing ' || X END, " +
+                "MOD(X, 20) <> 0, 1 + MOD(X - 1, " + users + "), " +
+                "CASE WHEN MOD(X, 10) = 0 THEN X / 10 END FROM SYSTEM_RANGE(1, " + items + ")");
+        jdbcTemplate.update("INSERT INTO bookings (start_date, end_date, item_id, booker_id, status) " +
+                "SELECT DATEADD('MINUTE', X - " + bookings / 2 + ", CURRENT_TIMESTAMP), " +
+                "DATEADD('DAY', 1, DATEADD('MINUTE', X - " + bookings / 2 + ", CURRENT_TIMESTAMP)), " +
+                "1 + MOD(X, " + items + "), 1 + MOD(X * 31, " + users + "), " +
+                "CASE MOD(X, 5) WHEN 0 THEN 'WAITING' WHEN 1 THEN 'REJECTED' ELSE 'APPROVED' END " +
+                "FROM SYSTEM_RANGE(1, " + bookings + ")");
+        jdbcTemplate.update("INSERT INTO comments (text, item_id, author_id, created) " +
+                "SELECT 'comment ' || X, X, 1 + MOD(X * 31, " + users + "), TIMESTAMP '2022-01-01 00:00:00' " +
+                "FROM SYSTEM_RANGE(1, " + items + ")");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * id пользователя для очередного вызова: пользователи перебираются по кругу
+     *
+     * @return id пользователя
+     */
+    public long nextUserId() {
+        return 1 + sequence.getAndIncrement() % users;
+    }
+}
@@ -0,0 +1,108 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * сравнение проверки существования пользователя и занятости email: выборка id (email) всех пользователей
+ * против точечного запроса
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class UserValidationBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    private int users;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private UserRepository userRepository;
+    private EntityManagerFactory entityManagerFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run();
+        userService = context.getBean(UserService.class);
+        userRepository = context.getBean(UserRepository.class);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        context.getBean(JdbcTemplate.class).update("INSERT INTO users (name, email) " +
+                "SELECT 'user' || X, 'user' || X || '@shareit.ru' FROM SYSTEM_RANGE(1, " + users + ")");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * прежняя проверка: материализация id всех пользователей и линейный поиск
+     */
+    @Benchmark
+    public boolean allIdsContains() {
+        long id = randomId();
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            return em.createQuery("select u.id from User as u", Long.class).getResultList().contains(id);
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * проверка через UserService.validateUserId
+     */
+    @Benchmark
+    public long validateUserId() {
+        long id = randomId();
+        userService.validateUserId(id);
+        return id;
+    }
+
+    /**
+     * прежняя проверка email: материализация email всех пользователей и линейный поиск
+     */
+    @Benchmark
+    public boolean allEmailsContains() {
+        String email = randomEmail();
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            return em.createQuery("select u.email from User as u", String.class).getResultList().contains(email);
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * проверка email запросом по индексу UQ_USER_EMAIL
+     */
+    @Benchmark
+    public boolean emailExists() {
+        return userRepository.existsByEmail(randomEmail());
+    }
+
+    private String randomEmail() {
+        return "user" + randomId() + "@shareit.ru";
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, users + 1);
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * режим виртуальных потоков (shareit.threads.virtual=true, при запуске нужен JDK 21): запросы обрабатываются
+ * Tomcat на виртуальных потоках, поэтому ожидание ответа shareIt-server не занимает поток платформы
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.threads.virtual", havingValue = "true")
+public class VirtualThreadsConfiguration {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer()
+            throws ReflectiveOperationException {
+        Executor executor = (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+}
@@ -1,16 +1,24 @@
 package ru.practicum.shareit.booking;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ClientMode;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -21,12 +29,20 @@ public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         ClientHttpRequestFactory requestFactory,
+                         WebClient.Builder webClientBuilder, @Value("${shareit-server.mode:blocking}") ClientMode mode,
+                         MeterRegistry meterRegistry) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                webClientBuilder
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .build(),
+                mode,
+                meterRegistry
         );
     }
 
@@ -37,15 +53,17 @@ public class BookingClient extends BaseClient {
      * @param state  вариант выборки (ALL, CURRENT, PAST, FUTURE, WAITING, REJECTED)
      * @param from   - начальный элемент
      * @param size   - размер выборки
+     * @param cursor - курсор следующей страницы или null
      * @return список dto бъектов бронирования
      */
-    public ResponseEntity<Object> findAllByUser(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<Object>> findAllByUser(long userId, BookingState state, Integer from, Integer size,
+                                                      String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state.name(),
                 "from", from,
                 "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+        ));
+        return get(withCursor("?state={state}&from={from}&size={size}", parameters, cursor), userId, parameters);
     }
 
     /**
@@ -55,7 +73,7 @@ public class BookingClient extends BaseClient {
      * @param bookingDto объект для создания бронирования
      * @return dto бъект бронирования
      */
-    public ResponseEntity<Object> create(long userId, BookingDto bookingDto) {
+    public Mono<ResponseEntity<Object>> create(long userId, BookingDto bookingDto) {
         return post("", userId, bookingDto);
     }
 
@@ -66,10 +84,32 @@ public class BookingClient extends BaseClient {
      * @param bookingId id бронирования
      * @return dto бъект бронирования
      */
-    public ResponseEntity<Object> findById(long userId, Long bookingId) {
+    public Mono<ResponseEntity<Object>> findById(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
+    /**
+     * выгрузка всех бронирований пользователя потоком NDJSON
+     *
+     * @param userId   id пользователя
+     * @param state    вариант выборки (ALL, CURRENT, PAST, FUTURE, WAITING, REJECTED)
+     * @param response ответ шлюза, в который копируется тело ответа сервера
+     */
+    public void exportAllByUser(long userId, BookingState state, HttpServletResponse response) throws IOException {
+        getStream("/export?state={state}", userId, Map.of("state", state.name()), response);
+    }
+
+    /**
+     * выгрузка всех бронирований вещей владельца потоком NDJSON
+     *
+     * @param ownerId  id владельца вещей
+     * @param state    вариант выборки (ALL, CURRENT, PAST, FUTURE, WAITING, REJECTED)
+     * @param response ответ шлюза, в который копируется тело ответа сервера
+     */
+    public void exportAllByOwner(long ownerId, BookingState state, HttpServletResponse response) throws IOException {
+        getStream("/owner/export?state={state}", ownerId, Map.of("state", state.name()), response);
+    }
+
     /**
      * возвращение всех бронирований владельца
      *
@@ -77,15 +117,18 @@ public class BookingClient extends BaseClient {
      * @param state   вариант выборки (ALL, CURRENT, PAST, FUTURE, WAITING, REJECTED)
      * @param from    - начальный элемент
      * @param size    - размер выборки
+     * @param cursor  - курсор следующей страницы или null
      * @return список dto бъектов бронирования
      */
-    public ResponseEntity<Object> findAllByOwner(long ownerId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<Object>> findAllByOwner(long ownerId, BookingState state, Integer from, Integer size,
+                                                       String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state.name(),
                 "from", from,
                 "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", ownerId, parameters);
+        ));
+        return get(withCursor("/owner?state={state}&from={from}&size={size}", parameters, cursor), ownerId,
+                parameters);
     }
 
     /**
@@ -96,7 +139,19 @@ public class BookingClient extends BaseClient {
      * @param bookingId id бронирования
      * @return dto бъект бронирования
      */
-    public ResponseEntity<Object> approve(long userId, Boolean approved, long bookingId) {
+    public Mono<ResponseEntity<Object>> approve(long userId, Boolean approved, long bookingId) {
         return patch("/" + bookingId + "?approved=" + approved, userId);
     }
+
+    /**
+     * изменение статуса набора бронирований
+     *
+     * @param userId     id пользователя
+     * @param approved   статус бронирований
+     * @param bookingIds id бронирований
+     * @return результат по каждому бронированию
+     */
+    public Mono<ResponseEntity<Object>> approveAll(long userId, Boolean approved, List<Long> bookingIds) {
+        return patch("?approved=" + approved, userId, bookingIds);
+    }
 }
@@ -6,12 +6,19 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.util.List;
 
 /**
  * класс контроллер бронирований
@@ -22,6 +29,8 @@ import javax.validation.constraints.PositiveOrZero;
 @Slf4j
 @Validated
 public class BookingController {
+    private static final int MAX_BULK_SIZE = 500;
+
     private final BookingClient bookingClient;
 
     /**
@@ -29,19 +38,22 @@ public class BookingController {
      *
      * @param userId     id пользователя
      * @param stateParam вариант выборки (ALL, CURRENT, PAST, FUTURE, WAITING, REJECTED)
-     * @param from       - начальный элемент
+     * @param from       - начальный элемент (используется, если курсор не передан)
      * @param size       - размер выборки
+     * @param cursor     - курсор из заголовка X-Next-Cursor предыдущей страницы
      * @return список dto бъектов бронирования
      */
     @GetMapping
-    public ResponseEntity<Object> findAllByUser(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
-                                                @RequestParam(name = "state", defaultValue = "all") String stateParam,
-                                                @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public Mono<ResponseEntity<Object>> findAllByUser(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
+                                                      @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                                      @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                      @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                      @RequestParam(name = "cursor", required = false) String cursor) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.findAllByUser(userId, state, from, size);
+        log.info("Get booking with state {}, userId={}, from={}, size={}, cursor={}", stateParam, userId, from, size,
+                cursor);
+        return bookingClient.findAllByUser(userId, state, from, size, cursor);
     }
 
     /**
@@ -52,8 +64,8 @@ public class BookingController {
      * @return dto бъект бронирования
      */
     @PostMapping
-    public ResponseEntity<Object> create(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
-                                         @RequestBody @Valid BookingDto bookingDto) {
+    public Mono<ResponseEntity<Object>> create(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
+                                               @RequestBody @Valid BookingDto bookingDto) {
         log.info("Creating booking {}, userId={}", bookingDto, userId);
         return bookingClient.create(userId, bookingDto);
     }
@@ -66,8 +78,8 @@ public class BookingController {
      * @return dto бъект бронирования
      */
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> findById(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
-                                           @Positive @PathVariable("bookingId") Long bookingId) {
+    public Mono<ResponseEntity<Object>> findById(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
+                                                 @Positive @PathVariable("bookingId") Long bookingId) {
         log.info("Get booking {}, userId={}", bookingId, userId);
         return bookingClient.findById(userId, bookingId);
     }
@@ -77,19 +89,56 @@ public class BookingController {
      *
      * @param ownerId    id владельца вещи
      * @param stateParam вариант выборки (ALL, CURRENT, PAST, FUTURE, WAITING, REJECTED)
-     * @param from       - начальный элемент
+     * @param from       - начальный элемент (используется, если курсор не передан)
      * @param size       - размер выборки
+     * @param cursor     - курсор из заголовка X-Next-Cursor предыдущей страницы
      * @return список dto бъектов бронирования
      */
     @GetMapping("/owner")
-    public ResponseEntity<Object> findAllByOwner(@Positive @RequestHeader("X-Sharer-User-Id") long ownerId,
-                                                 @RequestParam(name = "state", defaultValue = "all") String stateParam,
-                                                 @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                 @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public Mono<ResponseEntity<Object>> findAllByOwner(@Positive @RequestHeader("X-Sharer-User-Id") long ownerId,
+                                                       @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                                       @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                       @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                       @RequestParam(name = "cursor", required = false) String cursor) {
+        BookingState state = BookingState.from(stateParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
+        log.info("Get booking with state {}, ownerId={}, from={}, size={}, cursor={}", stateParam, ownerId, from,
+                size, cursor);
+        return bookingClient.findAllByOwner(ownerId, state, from, size, cursor);
+    }
+
+    /**
+     * выгрузка всех бронирований пользователя потоком NDJSON (тело ответа сервера передаётся по мере получения)
+     *
+     * @param userId     id пользователя
+     * @param stateParam вариант выборки (ALL, CURRENT, PAST, FUTURE, WAITING, REJECTED)
+     * @param response   ответ, в который копируются dto объекты бронирований по одному на строку
+     */
+    @GetMapping("/export")
+    public void exportAllByUser(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
+                                @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                HttpServletResponse response) throws IOException {
+        BookingState state = BookingState.from(stateParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
+        log.info("Export bookings with state {}, userId={}", stateParam, userId);
+        bookingClient.exportAllByUser(userId, state, response);
+    }
+
+    /**
+     * выгрузка всех бронирований вещей владельца потоком NDJSON
+     *
+     * @param ownerId    id владельца вещей
+     * @param stateParam вариант выборки (ALL, CURRENT, PAST, FUTURE, WAITING, REJECTED)
+     * @param response   ответ, в который копируются dto объекты бронирований по одному на строку
+     */
+    @GetMapping("/owner/export")
+    public void exportAllByOwner(@Positive @RequestHeader("X-Sharer-User-Id") long ownerId,
+                                 @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                 HttpServletResponse response) throws IOException {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get booking with state {}, ownerId={}, from={}, size={}", stateParam, ownerId, from, size);
-        return bookingClient.findAllByOwner(ownerId, state, from, size);
+        log.info("Export bookings with state {}, ownerId={}", stateParam, ownerId);
+        bookingClient.exportAllByOwner(ownerId, state, response);
     }
 
     /**
@@ -101,10 +150,27 @@ public class BookingController {
      * @return dto бъект бронирования
      */
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> approve(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
-                                          @RequestParam Boolean approved,
-                                          @Positive @PathVariable("bookingId") long bookingId) {
+    public Mono<ResponseEntity<Object>> approve(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
+                                                @RequestParam Boolean approved,
+                                                @Positive @PathVariable("bookingId") long bookingId) {
         log.info("User with userId={} approve booking {}, approve={}", userId, bookingId, approved);
         return bookingClient.approve(userId, approved, bookingId);
     }
+
+    /**
+     * изменение статуса набора бронирований
+     *
+     * @param userId     id пользователя
+     * @param approved   статус бронирований
+     * @param bookingIds id бронирований (от 1 до 500)
+     * @return результат по каждому бронированию: новый статус или сообщение об ошибке
+     */
+    @PatchMapping
+    public Mono<ResponseEntity<Object>> approveAll(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
+                                                   @RequestParam Boolean approved,
+                                                   @RequestBody @NotEmpty @Size(max = MAX_BULK_SIZE)
+                                                   List<@NotNull @Positive Long> bookingIds) {
+        log.info("User with userId={} approve {} bookings, approve={}", userId, bookingIds.size(), approved);
+        return bookingClient.approveAll(userId, approved, bookingIds);
+    }
 }
@@ -1,101 +1,383 @@
 package ru.practicum.shareit.client;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 public class BaseClient {
+    private static final List<String> HOP_BY_HOP_HEADERS = List.of(HttpHeaders.CONNECTION, "Keep-Alive",
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONTENT_LENGTH);
+    static final String UPSTREAM_METRIC = "shareit.gateway.upstream";
+    private static final int STREAM_BUFFER_SIZE = 8192;
+    private static final int STREAM_PREFETCH = 4;
+
     protected final RestTemplate rest;
+    protected final WebClient web;
+    private final ClientMode mode;
+    private final MeterRegistry meterRegistry;
 
     public BaseClient(RestTemplate rest) {
-        this.rest = rest;
+        this(rest, null, ClientMode.BLOCKING);
+    }
+
+    public BaseClient(RestTemplate rest, @Nullable WebClient web, ClientMode mode) {
+        this(rest, web, mode, Metrics.globalRegistry);
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    public BaseClient(RestTemplate rest, @Nullable WebClient web, ClientMode mode, MeterRegistry meterRegistry) {
+        if (mode == ClientMode.REACTIVE && web == null) {
+            throw new IllegalStateException("WebClient is required in reactive mode");
         }
+        this.rest = rest;
+        this.web = web;
+        this.mode = mode;
+        this.meterRegistry = meterRegistry;
+    }
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+    /**
+     * ответ шлюза из ответа сервера: тело передаётся как есть, без разбора JSON; для успешного ответа сохраняются
+     * заголовки сервера (кроме заголовков соединения), для ошибки - только тип содержимого
+     *
+     * @param status  статус ответа сервера
+     * @param headers заголовки ответа сервера
+     * @param body    тело ответа сервера или null
+     * @return ответ шлюза
+     */
+    private static ResponseEntity<Object> prepareGatewayResponse(HttpStatus status, HttpHeaders headers,
+                                                                 @Nullable byte[] body) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(status)
+                .headers(gatewayHeaders(status, headers));
 
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        if (body != null && body.length > 0) {
+            return responseBuilder.body(body);
         }
 
         return responseBuilder.build();
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    private static HttpHeaders gatewayHeaders(HttpStatus status, HttpHeaders headers) {
+        HttpHeaders gatewayHeaders = new HttpHeaders();
+        if (status.is2xxSuccessful()) {
+            gatewayHeaders.putAll(headers);
+            HOP_BY_HOP_HEADERS.forEach(gatewayHeaders::remove);
+        } else if (headers.getContentType() != null) {
+            gatewayHeaders.setContentType(headers.getContentType());
+        }
+        return gatewayHeaders;
+    }
+
+    /**
+     * статус и заголовки потокового ответа шлюза из ответа сервера (по тем же правилам, что и для обычного ответа)
+     *
+     * @param status   статус ответа сервера
+     * @param headers  заголовки ответа сервера
+     * @param response ответ шлюза
+     */
+    private static void prepareGatewayResponse(HttpStatus status, HttpHeaders headers,
+                                               HttpServletResponse response) {
+        response.setStatus(status.value());
+        gatewayHeaders(status, headers).forEach((name, values) -> values.forEach(value ->
+                response.addHeader(name, value)));
+    }
+
+    /**
+     * добавление курсора постраничной выборки в путь запроса
+     *
+     * @param path       путь запроса с параметрами
+     * @param parameters изменяемая карта параметров запроса
+     * @param cursor     курсор из заголовка X-Next-Cursor предыдущей страницы или null
+     * @return путь запроса
+     */
+    protected static String withCursor(String path, Map<String, Object> parameters, @Nullable String cursor) {
+        if (cursor == null) {
+            return path;
+        }
+        parameters.put("cursor", cursor);
+        return path + "&cursor={cursor}";
+    }
+
+    protected Mono<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    /**
+     * пересылка тела запроса потоком, без чтения его в память шлюза и без разбора
+     *
+     * @param path        путь запроса
+     * @param userId      id пользователя
+     * @param body        тело запроса
+     * @param contentType тип содержимого тела
+     * @return ответ шлюза
+     */
+    protected Mono<ResponseEntity<Object>> postStream(String path, long userId, InputStream body,
+                                                      MediaType contentType) {
+        return makeAndSendRequest(HttpMethod.POST, path, userId, null, new InputStreamResource(body), contentType);
+    }
+
+    /**
+     * пересылка ответа сервера в ответ шлюза потоком (выгрузки NDJSON): тело копируется частями по мере
+     * получения, без накопления в памяти шлюза и без разбора; запрос выполняется в потоке обработки запроса
+     * шлюза в обоих режимах, поэтому на длинную выгрузку не действует тайм-аут асинхронной обработки
+     *
+     * @param path       путь запроса
+     * @param userId     id пользователя
+     * @param parameters параметры запроса или null
+     * @param response   ответ шлюза
+     */
+    protected void getStream(String path, long userId, @Nullable Map<String, Object> parameters,
+                             HttpServletResponse response) throws IOException {
+        HttpHeaders headers = defaultHeaders(userId, MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON));
+        if (mode == ClientMode.REACTIVE) {
+            streamReactive(path, headers, parameters != null ? parameters : Map.of(), response);
+        } else {
+            streamBlocking(path, headers, parameters != null ? parameters : Map.of(), response);
+        }
+    }
+
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected Mono<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        return makeAndSendRequest(method, path, userId, parameters, body, MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * контроллеры возвращают Mono, поэтому запрос в обоих режимах обрабатывается асинхронно и ограничен
+     * тайм-аутом spring.mvc.async.request-timeout (он должен быть больше shareit-server.response-timeout);
+     * в блокирующем режиме запрос в сервер выполняется при подписке, то есть в потоке запроса шлюза
+     */
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body, MediaType contentType) {
+        if (mode == ClientMode.REACTIVE) {
+            return exchange(method, path, userId, parameters, body, contentType);
+        }
+        return Mono.fromCallable(() -> exchangeBlocking(method, path, userId, parameters, body, contentType));
+    }
+
+    private <T> ResponseEntity<Object> exchangeBlocking(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body, MediaType contentType) {
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId, contentType));
 
-        ResponseEntity<Object> shareitServerResponse;
+        ResponseEntity<byte[]> shareitServerResponse;
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String status = "IO_ERROR";
         try {
             if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class, parameters);
             } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class);
             }
+            status = String.valueOf(shareitServerResponse.getStatusCodeValue());
         } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            status = String.valueOf(e.getRawStatusCode());
+            HttpHeaders headers = e.getResponseHeaders() != null ? e.getResponseHeaders() : new HttpHeaders();
+            return prepareGatewayResponse(e.getStatusCode(), headers, e.getResponseBodyAsByteArray());
+        } finally {
+            recordUpstream(sample, method, path, status);
+        }
+        return prepareGatewayResponse(shareitServerResponse.getStatusCode(), shareitServerResponse.getHeaders(),
+                shareitServerResponse.getBody());
+    }
+
+    private <T> Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body, MediaType contentType) {
+        WebClient.RequestBodySpec request = web.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> headers.addAll(defaultHeaders(userId, contentType)));
+        WebClient.RequestHeadersSpec<?> spec;
+        if (body instanceof InputStreamResource) {
+            // чтение из потока запроса блокирующее, поэтому идёт не на потоке event loop
+            spec = request.body(BodyInserters.fromDataBuffers(DataBufferUtils.readInputStream(
+                            ((InputStreamResource) body)::getInputStream, DefaultDataBufferFactory.sharedInstance,
+                            STREAM_BUFFER_SIZE)
+                    .subscribeOn(Schedulers.boundedElastic())));
+        } else {
+            spec = body != null ? request.bodyValue(body) : request;
+        }
+        return Mono.defer(() -> {
+                    Timer.Sample sample = Timer.start(meterRegistry);
+                    return spec.exchangeToMono(response -> response.toEntity(byte[].class))
+                            .doOnNext(response -> recordUpstream(sample, method, path,
+                                    String.valueOf(response.getStatusCodeValue())))
+                            .doOnError(e -> recordUpstream(sample, method, path,
+                                    isPoolExhausted(e) ? "POOL_EXHAUSTED" : "IO_ERROR"));
+                })
+                .map(response -> prepareGatewayResponse(response.getStatusCode(), response.getHeaders(),
+                        response.getBody()))
+                .onErrorResume(BaseClient::isPoolExhausted,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build()));
+    }
+
+    private void streamBlocking(String path, HttpHeaders headers, Map<String, Object> parameters,
+                                HttpServletResponse response) throws IOException {
+        ClientHttpRequest request = rest.getRequestFactory()
+                .createRequest(rest.getUriTemplateHandler().expand(path, parameters), HttpMethod.GET);
+        request.getHeaders().addAll(headers);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        ClientHttpResponse upstream;
+        try {
+            upstream = request.execute();
+        } catch (IOException e) {
+            recordUpstream(sample, HttpMethod.GET, path, "IO_ERROR");
+            throw e;
+        }
+        try (upstream) {
+            recordUpstream(sample, HttpMethod.GET, path, String.valueOf(upstream.getRawStatusCode()));
+            prepareGatewayResponse(upstream.getStatusCode(), upstream.getHeaders(), response);
+            StreamUtils.copy(upstream.getBody(), response.getOutputStream());
+        }
+    }
+
+    private void streamReactive(String path, HttpHeaders headers, Map<String, Object> parameters,
+                                HttpServletResponse response) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        ResponseEntity<Flux<DataBuffer>> upstream;
+        try {
+            upstream = web.get()
+                    .uri(path, parameters)
+                    .headers(requestHeaders -> requestHeaders.addAll(headers))
+                    .retrieve()
+                    // ответ с ошибкой пересылается как есть, как и в exchange
+                    .onStatus(status -> true, clientResponse -> Mono.empty())
+                    .toEntityFlux(DataBuffer.class)
+                    .block();
+        } catch (RuntimeException e) {
+            boolean poolExhausted = isPoolExhausted(e);
+            recordUpstream(sample, HttpMethod.GET, path, poolExhausted ? "POOL_EXHAUSTED" : "IO_ERROR");
+            if (!poolExhausted) {
+                throw e;
+            }
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+        recordUpstream(sample, HttpMethod.GET, path, String.valueOf(upstream.getStatusCodeValue()));
+        prepareGatewayResponse(upstream.getStatusCode(), upstream.getHeaders(), response);
+        if (upstream.getBody() == null) {
+            return;
+        }
+        // не больше STREAM_PREFETCH буферов ждут записи; при обрыве записи подписка отменяется закрытием потока
+        OutputStream out = response.getOutputStream();
+        try (Stream<DataBuffer> buffers = upstream.getBody()
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .toStream(STREAM_PREFETCH)) {
+            Iterator<DataBuffer> iterator = buffers.iterator();
+            while (iterator.hasNext()) {
+                try (InputStream in = iterator.next().asInputStream(true)) {
+                    in.transferTo(out);
+                }
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * запись времени ответа shareIt-server в таймер shareit.gateway.upstream с тегами client, method, uri и status;
+     * id в пути заменяются на {id}, параметры запроса отбрасываются, чтобы число значений uri не росло с данными
+     *
+     * @param sample начало замера
+     * @param method метод запроса
+     * @param path   путь запроса относительно адреса клиента
+     * @param status код ответа или IO_ERROR и POOL_EXHAUSTED, если ответ не получен
+     */
+    private void recordUpstream(Timer.Sample sample, HttpMethod method, String path, String status) {
+        sample.stop(Timer.builder(UPSTREAM_METRIC)
+                .description("время ответа shareIt-server")
+                .tag("client", getClass().getSimpleName())
+                .tag("method", method.name())
+                .tag("uri", uriTag(path))
+                .tag("status", status)
+                .register(meterRegistry));
+    }
+
+    static String uriTag(String path) {
+        String uri = path.split("\\?", 2)[0].replaceAll("/\\d+(?=/|$)", "/{id}");
+        return uri.isEmpty() ? "/" : uri;
+    }
+
+    /**
+     * проверка, что запрос не получил соединение из пула (очередь ожидания переполнена или истекло время ожидания);
+     * классы этих исключений находятся во внутреннем пакете reactor-netty, поэтому сравниваются по имени
+     *
+     * @param e исключение
+     * @return true, если пул соединений исчерпан
+     */
+    private static boolean isPoolExhausted(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            String name = t.getClass().getSimpleName();
+            if (name.equals("PoolAcquirePendingLimitException") || name.equals("PoolAcquireTimeoutException")) {
+                return true;
+            }
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        return false;
     }
 
-    private HttpHeaders defaultHeaders(Long userId) {
+    private HttpHeaders defaultHeaders(Long userId, MediaType contentType) {
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setContentType(contentType);
         headers.setAccept(List.of(MediaType.APPLICATION_JSON));
         if (userId != null) {
             headers.set("X-Sharer-User-Id", String.valueOf(userId));
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.client;
+
+/**
+ * режим пересылки запросов в shareIt-server
+ */
+public enum ClientMode {
+    /**
+     * RestTemplate: поток Tomcat занят до получения ответа сервера
+     */
+    BLOCKING,
+    /**
+     * WebClient: поток Tomcat освобождается, ответ сервера обрабатывается на event loop reactor-netty
+     */
+    REACTIVE
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.client;
+
+import org.apache.http.impl.client.HttpClients;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+/**
+ * настройка RestTemplate для блокирующего режима пересылки запросов в shareIt-server
+ */
+@Configuration
+public class RestTemplateConfiguration {
+
+    /**
+     * общая для всех клиентов фабрика запросов с пулом соединений того же размера, что и в реактивном режиме
+     * (по умолчанию Apache HttpClient держит не больше 5 соединений на сервер); тело запроса не буферизуется,
+     * чтобы потоковые тела (массовый импорт) пересылались без чтения в память шлюза
+     *
+     * @param maxConnections максимальное число соединений
+     * @return фабрика запросов
+     */
+    @Bean(destroyMethod = "destroy")
+    public HttpComponentsClientHttpRequestFactory shareItServerRequestFactory(
+            @Value("${shareit-server.max-connections:200}") int maxConnections) {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(
+                HttpClients.custom()
+                        .useSystemProperties()
+                        .setMaxConnTotal(maxConnections)
+                        .setMaxConnPerRoute(maxConnections)
+                        .build());
+        requestFactory.setBufferRequestBody(false);
+        return requestFactory;
+    }
+}
@@ -0,0 +1,52 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * настройка WebClient для реактивного режима пересылки запросов в shareIt-server
+ */
+@Configuration
+public class WebClientConfiguration {
+
+    /**
+     * ограниченный пул соединений с сервером: при занятых соединениях запросы ждут в очереди ограниченной длины,
+     * при её переполнении или истечении времени ожидания клиент получает 503
+     *
+     * @param maxConnections         максимальное число соединений
+     * @param pendingAcquireMaxCount максимальная длина очереди ожидания соединения
+     * @param pendingAcquireTimeout  время ожидания соединения
+     * @return пул соединений
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider shareItServerConnectionProvider(
+            @Value("${shareit-server.max-connections:200}") int maxConnections,
+            @Value("${shareit-server.pending-acquire-max-count:1000}") int pendingAcquireMaxCount,
+            @Value("${shareit-server.pending-acquire-timeout:5s}") Duration pendingAcquireTimeout) {
+        return ConnectionProvider.builder("shareit-server")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .build();
+    }
+
+    /**
+     * коннектор WebClient поверх пула соединений (используется автонастроенным WebClient.Builder)
+     *
+     * @param connectionProvider пул соединений
+     * @param responseTimeout    время ожидания ответа сервера
+     * @return коннектор
+     */
+    @Bean
+    public ReactorClientHttpConnector shareItServerConnector(
+            ConnectionProvider connectionProvider,
+            @Value("${shareit-server.response-timeout:30s}") Duration responseTimeout) {
+        return new ReactorClientHttpConnector(HttpClient.create(connectionProvider).responseTimeout(responseTimeout));
+    }
+}
@@ -1,17 +1,27 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ClientMode;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemUpdate;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -22,12 +32,20 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ClientHttpRequestFactory requestFactory,
+                      WebClient.Builder webClientBuilder, @Value("${shareit-server.mode:blocking}") ClientMode mode,
+                      MeterRegistry meterRegistry) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                webClientBuilder
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .build(),
+                mode,
+                meterRegistry
         );
     }
 
@@ -37,14 +55,25 @@ public class ItemClient extends BaseClient {
      * @param userId - id пользователя
      * @param from   - начальное значение выборки
      * @param size   - размер выборки
+     * @param cursor - курсор следующей страницы или null
      * @return список dto-объектов вещей
      */
-    public ResponseEntity<Object> findAllByUser(long userId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<Object>> findAllByUser(long userId, Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
-        return get("?from={from}&size={size}", userId, parameters);
+        ));
+        return get(withCursor("?from={from}&size={size}", parameters, cursor), userId, parameters);
+    }
+
+    /**
+     * выгрузка всех вещей пользователя потоком NDJSON
+     *
+     * @param userId   id пользователя
+     * @param response ответ шлюза, в который копируется тело ответа сервера
+     */
+    public void exportAllByUser(long userId, HttpServletResponse response) throws IOException {
+        getStream("/export", userId, null, response);
     }
 
     /**
@@ -53,10 +82,27 @@ public class ItemClient extends BaseClient {
      * @param itemId id вещи
      * @return dto объект вещи
      */
-    public ResponseEntity<Object> getById(long userId, Long itemId) {
+    public Mono<ResponseEntity<Object>> getById(long userId, Long itemId) {
         return get("/" + itemId, userId);
     }
 
+    /**
+     * проверка доступности вещи для бронирования на период
+     *
+     * @param userId id пользователя
+     * @param itemId id вещи
+     * @param start  начало периода
+     * @param end    окончание периода
+     * @return dto объект доступности вещи
+     */
+    public Mono<ResponseEntity<Object>> getAvailability(long userId, Long itemId, LocalDateTime start, LocalDateTime end) {
+        Map<String, Object> parameters = Map.of(
+                "start", start,
+                "end", end
+        );
+        return get("/" + itemId + "/availability?start={start}&end={end}", userId, parameters);
+    }
+
     /**
      * создание вещи
      *
@@ -64,10 +110,22 @@ public class ItemClient extends BaseClient {
      * @param itemDto - dto объект создаваемой вещи
      * @return dto объект созданой вещи
      */
-    public ResponseEntity<Object> create(Long userId, ItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> create(Long userId, ItemDto itemDto) {
         return post("", userId, itemDto);
     }
 
+    /**
+     * массовый импорт вещей
+     *
+     * @param userId      id владельца
+     * @param body        тело запроса: JSON-массив или NDJSON
+     * @param contentType тип содержимого тела
+     * @return dto объект результата импорта
+     */
+    public Mono<ResponseEntity<Object>> importItems(long userId, InputStream body, MediaType contentType) {
+        return postStream("/import", userId, body, contentType);
+    }
+
     /**
      * обновление вещи
      *
@@ -77,7 +135,7 @@ public class ItemClient extends BaseClient {
      * @return dto объект обновлённой вещи
      */
 
-    public ResponseEntity<Object> update(Long userId, ItemUpdate itemDto, Long itemId) {
+    public Mono<ResponseEntity<Object>> update(Long userId, ItemUpdate itemDto, Long itemId) {
         return patch("/" + itemId, userId, itemDto);
     }
 
@@ -89,7 +147,7 @@ public class ItemClient extends BaseClient {
      * @param size - размер выборки
      * @return лист dto объектов доступных для аренды вещей, соответствующих запросу
      */
-    public ResponseEntity<Object> search(Long userId, String text, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> search(Long userId, String text, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "text", text,
                 "from", from,
@@ -106,7 +164,7 @@ public class ItemClient extends BaseClient {
      * @param commentDto dto объект комментария
      * @return dto объект комментария
      */
-    public ResponseEntity<Object> addComment(Long userId, Long itemId, CommentDto commentDto) {
+    public Mono<ResponseEntity<Object>> addComment(Long userId, Long itemId, CommentDto commentDto) {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
 }
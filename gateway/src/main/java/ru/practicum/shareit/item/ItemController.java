@@ -3,17 +3,29 @@ package ru.practicum.shareit.item;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemUpdate;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
 
 /**
  * контроллер вещей
@@ -26,21 +38,38 @@ import javax.validation.constraints.PositiveOrZero;
 public class ItemController {
     @Autowired
     private ItemClient itemClient;
+    @Value("${shareit-server.import-timeout:30m}")
+    private Duration importTimeout;
 
     /**
      * просмотр пользователем всех его вещей
      *
      * @param userId - id пользователя
-     * @param from   - начальное значение выборки
+     * @param from   - начальное значение выборки (используется, если курсор не передан)
      * @param size   - размер выборки
+     * @param cursor - курсор из заголовка X-Next-Cursor предыдущей страницы
      * @return список dto-объектов вещей
      */
     @GetMapping
-    public ResponseEntity<Object> findAllByUser(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
-                                                @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        log.info("Get items with userId={}, from={}, size={}", userId, from, size);
-        return itemClient.findAllByUser(userId, from, size);
+    public Mono<ResponseEntity<Object>> findAllByUser(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
+                                                      @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                      @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                      @RequestParam(name = "cursor", required = false) String cursor) {
+        log.info("Get items with userId={}, from={}, size={}, cursor={}", userId, from, size, cursor);
+        return itemClient.findAllByUser(userId, from, size, cursor);
+    }
+
+    /**
+     * выгрузка всех вещей пользователя потоком NDJSON (тело ответа сервера передаётся по мере получения)
+     *
+     * @param userId   id пользователя
+     * @param response ответ, в который копируются dto объекты вещей по одному на строку
+     */
+    @GetMapping("/export")
+    public void exportAllByUser(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
+                                HttpServletResponse response) throws IOException {
+        log.info("Export items with userId={}", userId);
+        itemClient.exportAllByUser(userId, response);
     }
 
     /**
@@ -50,12 +79,35 @@ public class ItemController {
      * @return dto объект вещи
      */
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getById(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
-                                          @Positive @PathVariable Long itemId) {
+    public Mono<ResponseEntity<Object>> getById(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
+                                                @Positive @PathVariable Long itemId) {
         log.info("Get item {}, userId={}", itemId, userId);
         return itemClient.getById(userId, itemId);
     }
 
+    /**
+     * проверка доступности вещи для бронирования на период
+     *
+     * @param userId id пользователя
+     * @param itemId id вещи
+     * @param start  начало периода
+     * @param end    окончание периода
+     * @return dto объект доступности вещи
+     */
+    @GetMapping("/{itemId}/availability")
+    public Mono<ResponseEntity<Object>> getAvailability(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
+                                                        @Positive @PathVariable Long itemId,
+                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                        LocalDateTime start,
+                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                        LocalDateTime end) {
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("End must be after start");
+        }
+        log.info("Get availability of item {} from {} to {}, userId={}", itemId, start, end, userId);
+        return itemClient.getAvailability(userId, itemId, start, end);
+    }
+
     /**
      * создание вещи
      *
@@ -64,12 +116,34 @@ public class ItemController {
      * @return dto объект созданой вещи
      */
     @PostMapping
-    public ResponseEntity<Object> createNewItem(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
-                                                @RequestBody @Valid ItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> createNewItem(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
+                                                      @RequestBody @Valid ItemDto itemDto) {
         log.info("Item {} has been created", itemDto);
         return itemClient.create(userId, itemDto);
     }
 
+    /**
+     * массовый импорт вещей из JSON-массива или NDJSON (по объекту в строке): тело пересылается в сервер потоком,
+     * без разбора и чтения в память шлюза, поэтому поля вещей проверяет сервер; вместо общего тайм-аута асинхронной
+     * обработки действует shareit-server.import-timeout, по его истечении пересылка отменяется и шлюз отвечает 503
+     *
+     * @param userId      id владельца
+     * @param contentType тип содержимого тела
+     * @param body        тело запроса
+     * @return dto объект результата импорта
+     */
+    @PostMapping(path = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public DeferredResult<ResponseEntity<Object>> importItems(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
+                                                              @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                              InputStream body) {
+        log.info("Import items of userId={}, contentType={}", userId, contentType);
+        DeferredResult<ResponseEntity<Object>> result = new DeferredResult<>(importTimeout.toMillis());
+        Disposable upload = itemClient.importItems(userId, body, contentType)
+                .subscribe(result::setResult, result::setErrorResult);
+        result.onTimeout(upload::dispose);
+        return result;
+    }
+
     /**
      * обновление вещи
      *
@@ -79,9 +153,9 @@ public class ItemController {
      * @return dto объект обновлённой вещи
      */
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> updateItem(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
-                                             @RequestBody ItemUpdate itemDto,
-                                             @Positive @PathVariable("itemId") Long itemId) {
+    public Mono<ResponseEntity<Object>> updateItem(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
+                                                   @RequestBody ItemUpdate itemDto,
+                                                   @Positive @PathVariable("itemId") Long itemId) {
         log.info("Item with id={} has been updated", itemId);
         return itemClient.update(userId, itemDto, itemId);
     }
@@ -95,10 +169,10 @@ public class ItemController {
      * @return лист dto объектов доступных для аренды вещей, соответствующих запросу
      */
     @GetMapping("/search")
-    public ResponseEntity<Object> search(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
-                                         @RequestParam(name = "text", defaultValue = "") String text,
-                                         @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                         @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public Mono<ResponseEntity<Object>> search(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
+                                               @RequestParam(name = "text", defaultValue = "") String text,
+                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                               @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
         log.info("Search item by text={}, userId={} is successful", text, userId);
         return itemClient.search(userId, text, from, size);
     }
@@ -112,9 +186,9 @@ public class ItemController {
      * @return dto объект комментария
      */
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> addComment(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
-                                             @Positive @PathVariable("itemId") Long itemId,
-                                             @RequestBody @Valid CommentDto commentDto) {
+    public Mono<ResponseEntity<Object>> addComment(@Positive @RequestHeader("X-Sharer-User-Id") long userId,
+                                                   @Positive @PathVariable("itemId") Long itemId,
+                                                   @RequestBody @Valid CommentDto commentDto) {
         log.info("Comment for itemId={}, userId={} has been created", itemId, userId);
         return itemClient.addComment(userId, itemId, commentDto);
     }
@@ -1,15 +1,20 @@
 package ru.practicum.shareit.request;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ClientMode;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -20,12 +25,20 @@ public class RequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         ClientHttpRequestFactory requestFactory,
+                         WebClient.Builder webClientBuilder, @Value("${shareit-server.mode:blocking}") ClientMode mode,
+                         MeterRegistry meterRegistry) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                webClientBuilder
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .build(),
+                mode,
+                meterRegistry
         );
     }
 
@@ -36,7 +49,7 @@ public class RequestClient extends BaseClient {
      * @param itemRequestDto дто объект создания запроса
      * @return дто объект запроса
      */
-    public ResponseEntity<Object> create(Long userId, ItemRequestDto itemRequestDto) {
+    public Mono<ResponseEntity<Object>> create(Long userId, ItemRequestDto itemRequestDto) {
         return post("", userId, itemRequestDto);
     }
 
@@ -46,7 +59,7 @@ public class RequestClient extends BaseClient {
      * @param userId id  пользователя
      * @return список дто объектов всех запросов пользователя
      */
-    public ResponseEntity<Object> findAllByUser(Long userId) {
+    public Mono<ResponseEntity<Object>> findAllByUser(Long userId) {
         return get("", userId);
     }
 
@@ -56,14 +69,15 @@ public class RequestClient extends BaseClient {
      * @param userId id пользователя
      * @param from   начальный элемент выборки
      * @param size   размер выборки
+     * @param cursor курсор следующей страницы или null
      * @return список всех запросов других пользователей
      */
-    public ResponseEntity<Object> findAllOnPage(Long userId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<Object>> findAllOnPage(Long userId, Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
-        return get("/all?from={from}&size={size}", userId, parameters);
+        ));
+        return get(withCursor("/all?from={from}&size={size}", parameters, cursor), userId, parameters);
     }
 
     /**
@@ -73,7 +87,7 @@ public class RequestClient extends BaseClient {
      * @param userId    id  пользователя
      * @return дто объект запроса
      */
-    public ResponseEntity<Object> getById(Long userId, Long requestId) {
+    public Mono<ResponseEntity<Object>> getById(Long userId, Long requestId) {
         return get("/" + requestId, userId);
     }
 }
@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import javax.validation.Valid;
@@ -31,8 +32,8 @@ public class RequestController {
      * @return дто объект запроса
      */
     @PostMapping
-    public ResponseEntity<Object> create(@Positive @RequestHeader("X-Sharer-User-Id") Long userId,
-                                         @RequestBody @Valid ItemRequestDto itemRequestDto) {
+    public Mono<ResponseEntity<Object>> create(@Positive @RequestHeader("X-Sharer-User-Id") Long userId,
+                                               @RequestBody @Valid ItemRequestDto itemRequestDto) {
         log.info("ItemRequest {} has been created", itemRequestDto);
         return itemRequestClient.create(userId, itemRequestDto);
     }
@@ -44,7 +45,7 @@ public class RequestController {
      * @return список дто объектов всех запросов пользователя
      */
     @GetMapping
-    public ResponseEntity<Object> findAllByUser(@Positive @RequestHeader("X-Sharer-User-Id") Long userId) {
+    public Mono<ResponseEntity<Object>> findAllByUser(@Positive @RequestHeader("X-Sharer-User-Id") Long userId) {
         log.info("Getting itemRequests for ownerId={} is successful", userId);
         return itemRequestClient.findAllByUser(userId);
     }
@@ -53,16 +54,18 @@ public class RequestController {
      * поиск всех запросов других пользователей
      *
      * @param userId id пользователя
-     * @param from   начальный элемент выборки
+     * @param from   начальный элемент выборки (используется, если курсор не передан)
      * @param size   размер выборки
+     * @param cursor курсор из заголовка X-Next-Cursor предыдущей страницы
      * @return список всех запросов других пользователей
      */
     @GetMapping("/all")
-    public ResponseEntity<Object> findAllOnPage(@Positive @RequestHeader("X-Sharer-User-Id") Long userId,
-                                                @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public Mono<ResponseEntity<Object>> findAllOnPage(@Positive @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                      @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                      @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                      @RequestParam(name = "cursor", required = false) String cursor) {
         log.info("Getting itemRequests other users is successful");
-        return itemRequestClient.findAllOnPage(userId, from, size);
+        return itemRequestClient.findAllOnPage(userId, from, size, cursor);
     }
 
     /**
@@ -73,8 +76,8 @@ public class RequestController {
      * @return дто объект запроса
      */
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getById(@Positive @RequestHeader("X-Sharer-User-Id") Long userId,
-                                          @Positive @PathVariable("requestId") Long requestId) {
+    public Mono<ResponseEntity<Object>> getById(@Positive @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                @Positive @PathVariable("requestId") Long requestId) {
         log.info("Get requestId={} is successful", requestId);
         return itemRequestClient.getById(userId, requestId);
     }
@@ -1,13 +1,17 @@
 package ru.practicum.shareit.user;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ClientMode;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserUpdateDto;
 
@@ -19,12 +23,20 @@ public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ClientHttpRequestFactory requestFactory,
+                      WebClient.Builder webClientBuilder, @Value("${shareit-server.mode:blocking}") ClientMode mode,
+                      MeterRegistry meterRegistry) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                webClientBuilder
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .build(),
+                mode,
+                meterRegistry
         );
     }
 
@@ -34,7 +46,7 @@ public class UserClient extends BaseClient {
      * @param userDto - объект пользователя
      * @return dto объект пользователя
      */
-    public ResponseEntity<Object> create(UserDto userDto) {
+    public Mono<ResponseEntity<Object>> create(UserDto userDto) {
         return post("", userDto);
     }
 
@@ -44,7 +56,7 @@ public class UserClient extends BaseClient {
      * @param userId id пользователя
      * @return dto объект пользователя
      */
-    public ResponseEntity<Object> update(long userId, UserUpdateDto userDto) {
+    public Mono<ResponseEntity<Object>> update(long userId, UserUpdateDto userDto) {
         return patch("/" + userId, userDto);
     }
 
@@ -54,7 +66,7 @@ public class UserClient extends BaseClient {
      * @param userId id пользователя
      * @return dto объект пользователя
      */
-    public ResponseEntity<Object> getById(long userId) {
+    public Mono<ResponseEntity<Object>> getById(long userId) {
         return get("/" + userId);
     }
 
@@ -63,7 +75,7 @@ public class UserClient extends BaseClient {
      *
      * @param userId - id пользователя
      */
-    public ResponseEntity<Object> deleteById(long userId) {
+    public Mono<ResponseEntity<Object>> deleteById(long userId) {
         return delete("/" + userId);
     }
 
@@ -72,7 +84,7 @@ public class UserClient extends BaseClient {
      *
      * @return список dto объектов пользователей
      */
-    public ResponseEntity<Object> getAll() {
+    public Mono<ResponseEntity<Object>> getAll() {
         return get("");
     }
 }
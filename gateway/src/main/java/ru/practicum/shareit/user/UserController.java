@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserUpdateDto;
 
@@ -27,7 +28,7 @@ public class UserController {
      * @return dto объект пользователя
      */
     @PostMapping
-    public ResponseEntity<Object> create(@RequestBody @Valid UserDto userDto) {
+    public Mono<ResponseEntity<Object>> create(@RequestBody @Valid UserDto userDto) {
         log.info("User={} has been created", userDto);
         return userClient.create(userDto);
     }
@@ -39,8 +40,8 @@ public class UserController {
      * @return dto объект пользователя
      */
     @PatchMapping("/{id}")
-    public ResponseEntity<Object> update(@Positive @PathVariable("id") Long userId,
-                                         @Valid @RequestBody UserUpdateDto updatedUser) {
+    public Mono<ResponseEntity<Object>> update(@Positive @PathVariable("id") Long userId,
+                                               @Valid @RequestBody UserUpdateDto updatedUser) {
         log.info("User with userId={} has been updated", userId);
         return userClient.update(userId, updatedUser);
     }
@@ -52,7 +53,7 @@ public class UserController {
      * @return dto объект пользователя
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Object> getById(@Positive @PathVariable("id") Long userId) {
+    public Mono<ResponseEntity<Object>> getById(@Positive @PathVariable("id") Long userId) {
         log.info("Find user by userId={} is successful", userId);
         return userClient.getById(userId);
     }
@@ -63,7 +64,7 @@ public class UserController {
      * @param userId - id пользователя
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Object> delete(@Positive @PathVariable("id") Long userId) {
+    public Mono<ResponseEntity<Object>> delete(@Positive @PathVariable("id") Long userId) {
         log.info("Delete user by userId={} is successful", userId);
         return userClient.deleteById(userId);
     }
@@ -74,7 +75,7 @@ public class UserController {
      * @return список dto объектов пользователей
      */
     @GetMapping
-    public ResponseEntity<Object> getAll() {
+    public Mono<ResponseEntity<Object>> getAll() {
         log.info("Get all users");
         return userClient.getAll();
     }
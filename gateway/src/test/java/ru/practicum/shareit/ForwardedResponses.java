@@ -0,0 +1,55 @@
+package ru.practicum.shareit;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * проверка пересылки ответа shareIt-server контроллерами шлюза: контроллеры возвращают Mono, поэтому ответ
+ * записывается после асинхронной обработки запроса
+ */
+public final class ForwardedResponses {
+    public static final String BODY = "{\"id\":1}";
+
+    private ForwardedResponses() {
+    }
+
+    /**
+     * ответ сервера, отличимый от ответа шлюза по умолчанию
+     *
+     * @return ответ 201 с телом JSON
+     */
+    public static Mono<ResponseEntity<Object>> upstream() {
+        return Mono.just(ResponseEntity.status(HttpStatus.CREATED)
+                .contentType(MediaType.APPLICATION_JSON)
+                .<Object>body(BODY.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * выполнение запроса до конца асинхронной обработки с проверкой, что шлюз вернул ответ {@link #upstream()}
+     *
+     * @param mockMvc клиент MockMvc
+     * @param request запрос
+     * @return результат асинхронной обработки для дополнительных проверок
+     */
+    public static ResultActions forwarded(MockMvc mockMvc, RequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isCreated())
+                .andExpect(content().json(BODY));
+    }
+}
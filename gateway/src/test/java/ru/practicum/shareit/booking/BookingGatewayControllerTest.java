@@ -7,17 +7,26 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
+import javax.servlet.http.HttpServletResponse;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.ForwardedResponses.forwarded;
+import static ru.practicum.shareit.ForwardedResponses.upstream;
 
 /**
  * тестовый класс контроллера бронирований
@@ -39,8 +48,8 @@ class BookingGatewayControllerTest {
     void test01_findAllByUser() throws Exception {
         Mockito
                 .when(client.findAllByUser(Mockito.anyLong(), Mockito.any(BookingState.class), Mockito.anyInt(),
-                        Mockito.anyInt()))
-                .thenReturn(new ResponseEntity<>(HttpStatus.OK));
+                        Mockito.anyInt(), Mockito.any()))
+                .thenReturn(upstream());
         this.mockMvc.perform(get("/bookings?from=-1").header("X-Sharer-User-Id", 1))
                 .andExpect(status().isBadRequest());
         this.mockMvc.perform(get("/bookings?size=0").header("X-Sharer-User-Id", 1))
@@ -49,8 +58,24 @@ class BookingGatewayControllerTest {
                 .andExpect(status().isBadRequest());
         this.mockMvc.perform(get("/bookings?state=all").header("X-Sharer-User-Id", 0))
                 .andExpect(status().isBadRequest());
-        this.mockMvc.perform(get("/bookings").header("X-Sharer-User-Id", 1))
-                .andExpect(status().isOk());
+        forwarded(mockMvc, get("/bookings").header("X-Sharer-User-Id", 1));
+    }
+
+    /**
+     * запрос страницы бронирований пользователя по курсору
+     */
+    @Test
+    void test22_findAllByUserWithCursor() throws Exception {
+        Mockito
+                .when(client.findAllByUser(1L, BookingState.ALL, 0, 2, "MjAyMi0wMS0wMVQwMDowMHw1"))
+                .thenReturn(Mono.just(ResponseEntity.ok().header("X-Next-Cursor", "MjAyMS0wMS0wMVQwMDowMHwz").build()));
+        MvcResult result = this.mockMvc.perform(get("/bookings?size=2&cursor=MjAyMi0wMS0wMVQwMDowMHw1")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "MjAyMS0wMS0wMVQwMDowMHwz"));
     }
 
     /**
@@ -64,11 +89,10 @@ class BookingGatewayControllerTest {
         dto.setItemId(1);
         Mockito
                 .when(client.create(Mockito.anyLong(), Mockito.any(BookingDto.class)))
-                .thenReturn(new ResponseEntity<>(HttpStatus.OK));
-        this.mockMvc.perform(post("/bookings").header("X-Sharer-User-Id", 1)
-                        .content(mapper.writeValueAsString(dto))
-                        .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk());
+                .thenReturn(upstream());
+        forwarded(mockMvc, post("/bookings").header("X-Sharer-User-Id", 1)
+                .content(mapper.writeValueAsString(dto))
+                .contentType(MediaType.APPLICATION_JSON));
         dto.setItemId(0);
         this.mockMvc.perform(post("/bookings").header("X-Sharer-User-Id", 1)
                         .content(mapper.writeValueAsString(dto))
@@ -95,9 +119,8 @@ class BookingGatewayControllerTest {
     void test03_findById() throws Exception {
         Mockito
                 .when(client.findById(Mockito.anyLong(), Mockito.anyLong()))
-                .thenReturn(new ResponseEntity<>(HttpStatus.OK));
-        this.mockMvc.perform(get("/bookings/1").header("X-Sharer-User-Id", 10))
-                .andExpect(status().isOk());
+                .thenReturn(upstream());
+        forwarded(mockMvc, get("/bookings/1").header("X-Sharer-User-Id", 10));
         this.mockMvc.perform(get("/bookings/1").header("X-Sharer-User-Id", 0))
                 .andExpect(status().isBadRequest());
         this.mockMvc.perform(get("/bookings/0").header("X-Sharer-User-Id", 1))
@@ -111,10 +134,9 @@ class BookingGatewayControllerTest {
     void test04_findAllByOwner() throws Exception {
         Mockito
                 .when(client.findAllByOwner(Mockito.anyLong(), Mockito.any(BookingState.class), Mockito.anyInt(),
-                        Mockito.anyInt()))
-                .thenReturn(new ResponseEntity<>(HttpStatus.OK));
-        this.mockMvc.perform(get("/bookings/owner").header("X-Sharer-User-Id", 10))
-                .andExpect(status().isOk());
+                        Mockito.anyInt(), Mockito.any()))
+                .thenReturn(upstream());
+        forwarded(mockMvc, get("/bookings/owner").header("X-Sharer-User-Id", 10));
         this.mockMvc.perform(get("/bookings/owner").header("X-Sharer-User-Id", 0))
                 .andExpect(status().isBadRequest());
     }
@@ -126,12 +148,57 @@ class BookingGatewayControllerTest {
     void test05_approve() throws Exception {
         Mockito
                 .when(client.approve(Mockito.anyLong(), Mockito.anyBoolean(), Mockito.anyLong()))
-                .thenReturn(new ResponseEntity<>(HttpStatus.OK));
-        this.mockMvc.perform(patch("/bookings/1?approved=true").header("X-Sharer-User-Id", 10))
-                .andExpect(status().isOk());
+                .thenReturn(upstream());
+        forwarded(mockMvc, patch("/bookings/1?approved=true").header("X-Sharer-User-Id", 10));
         this.mockMvc.perform(patch("/bookings/1?approved=true").header("X-Sharer-User-Id", 0))
                 .andExpect(status().isBadRequest());
         this.mockMvc.perform(patch("/bookings/0?approved=true").header("X-Sharer-User-Id", 1))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    /**
+     * подтверждение набора бронирований: пустой набор, id не больше 0 и больше 500 id отклоняются
+     */
+    @Test
+    void test27_approveAll() throws Exception {
+        Mockito
+                .when(client.approveAll(Mockito.anyLong(), Mockito.anyBoolean(), Mockito.anyList()))
+                .thenReturn(upstream());
+        forwarded(mockMvc, patch("/bookings?approved=true").header("X-Sharer-User-Id", 10)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(List.of(1, 2, 3))));
+        Mockito.verify(client).approveAll(10L, true, List.of(1L, 2L, 3L));
+        this.mockMvc.perform(patch("/bookings?approved=true").header("X-Sharer-User-Id", 10)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+        this.mockMvc.perform(patch("/bookings?approved=true").header("X-Sharer-User-Id", 10)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 0]"))
+                .andExpect(status().isBadRequest());
+        this.mockMvc.perform(patch("/bookings?approved=true").header("X-Sharer-User-Id", 10)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(LongStream.rangeClosed(1, 501).boxed()
+                                .collect(Collectors.toList()))))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * выгрузка бронирований: вариант выборки проверяется до обращения к серверу
+     */
+    @Test
+    void test30_export() throws Exception {
+        this.mockMvc.perform(get("/bookings/export?state=past").header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk());
+        Mockito.verify(client).exportAllByUser(Mockito.eq(1L), Mockito.eq(BookingState.PAST),
+                Mockito.any(HttpServletResponse.class));
+        this.mockMvc.perform(get("/bookings/owner/export").header("X-Sharer-User-Id", 10))
+                .andExpect(status().isOk());
+        Mockito.verify(client).exportAllByOwner(Mockito.eq(10L), Mockito.eq(BookingState.ALL),
+                Mockito.any(HttpServletResponse.class));
+        this.mockMvc.perform(get("/bookings/export?state=asdasf").header("X-Sharer-User-Id", 1))
+                .andExpect(status().isBadRequest());
+        this.mockMvc.perform(get("/bookings/owner/export").header("X-Sharer-User-Id", 0))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,245 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * тестовый класс реактивного режима пересылки запросов (сервер заменён заглушкой)
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "shareit-server.mode=reactive",
+        "shareit-server.max-connections=1",
+        "shareit-server.pending-acquire-max-count=1"
+})
+class ReactiveClientTest {
+    private static final String BOOKINGS = "[ {\"id\": 1} ]";
+    static final String EXPORT = IntStream.rangeClosed(1, 1000)
+            .mapToObj(id -> "{\"id\":" + id + ",\"status\":\"APPROVED\"}\n")
+            .collect(Collectors.joining());
+    private static final HttpServer STUB = startStub();
+    @Autowired
+    private TestRestTemplate rest;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", () -> "http://localhost:" + STUB.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.stop(0);
+    }
+
+    /**
+     * пересылка запроса с сохранением статуса, тела и заголовка курсора
+     */
+    @Test
+    void test23_forwarding() {
+        ResponseEntity<List> response = rest.exchange("/bookings?size=1", HttpMethod.GET, withUser(1),
+                List.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().size());
+        assertEquals("next", response.getHeaders().getFirst("X-Next-Cursor"));
+
+        ResponseEntity<Map> notFound = rest.exchange("/bookings/99", HttpMethod.GET, withUser(1), Map.class);
+        assertEquals(HttpStatus.NOT_FOUND, notFound.getStatusCode());
+        assertEquals("This booking not found", notFound.getBody().get("error"));
+    }
+
+    /**
+     * при исчерпании пула соединений и очереди ожидания запрос получает 503
+     */
+    @Test
+    void test24_poolExhausted() {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users/1")).build();
+        List<CompletableFuture<HttpResponse<Void>>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        List<Integer> statuses = new ArrayList<>();
+        futures.forEach(future -> statuses.add(future.join().statusCode()));
+        assertTrue(statuses.contains(HttpStatus.OK.value()));
+        assertTrue(statuses.contains(HttpStatus.SERVICE_UNAVAILABLE.value()));
+    }
+
+    /**
+     * тело ответа сервера передаётся без разбора и повторной сериализации
+     */
+    @Test
+    void test25_rawBody() {
+        ResponseEntity<String> response = rest.exchange("/bookings?size=1", HttpMethod.GET, withUser(1),
+                String.class);
+        assertEquals(BOOKINGS, response.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+    }
+
+    /**
+     * время ответа сервера записывается с id в пути, заменённым на {id}, и кодом ответа
+     */
+    @Test
+    void test26_upstreamMetrics() {
+        long before = notFoundCount();
+        rest.exchange("/bookings/99", HttpMethod.GET, withUser(1), Map.class);
+        rest.exchange("/bookings/98", HttpMethod.GET, withUser(1), Map.class);
+        assertEquals(before + 2, notFoundCount());
+        assertEquals("/{id}/approve", BaseClient.uriTag("/12/approve?approved=true"));
+        assertEquals("/owner", BaseClient.uriTag("/owner?state={state}"));
+        assertEquals("/", BaseClient.uriTag(""));
+    }
+
+    /**
+     * тело импорта пересылается потоком с исходным типом содержимого
+     */
+    @Test
+    void test29_streamedBody() {
+        HttpHeaders headers = withUser(1).getHeaders();
+        HttpHeaders ndjson = new HttpHeaders();
+        ndjson.putAll(headers);
+        ndjson.setContentType(MediaType.APPLICATION_NDJSON);
+        String body = "{\"name\":\"drill\"}\n{\"name\":\"saw\"}\n";
+
+        ResponseEntity<Map> response = rest.exchange("/items/import", HttpMethod.POST,
+                new HttpEntity<>(body, ndjson), Map.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON_VALUE, response.getBody().get("contentType"));
+        assertEquals(body, response.getBody().get("body"));
+    }
+
+    /**
+     * выгрузка пересылается потоком с типом содержимого сервера, ошибка сервера - со своим статусом
+     */
+    @Test
+    void test31_streamedExport() {
+        ResponseEntity<String> response = rest.exchange("/bookings/export?state=past", HttpMethod.GET, withUser(1),
+                String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        assertEquals(EXPORT, response.getBody());
+
+        ResponseEntity<Map> notFound = rest.exchange("/bookings/export", HttpMethod.GET, withUser(2), Map.class);
+        assertEquals(HttpStatus.NOT_FOUND, notFound.getStatusCode());
+        assertEquals("User not found", notFound.getBody().get("error"));
+    }
+
+    private long notFoundCount() {
+        Timer timer = meterRegistry.find(BaseClient.UPSTREAM_METRIC)
+                .tags("client", "BookingClient", "method", "GET", "uri", "/{id}", "status", "404")
+                .timer();
+        return timer != null ? timer.count() : 0;
+    }
+
+    private static HttpEntity<Void> withUser(long userId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(userId));
+        return new HttpEntity<>(headers);
+    }
+
+    private static HttpServer startStub() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/bookings", exchange -> {
+                if (exchange.getRequestURI().getPath().equals("/bookings")) {
+                    exchange.getResponseHeaders().add("X-Next-Cursor", "next");
+                    respond(exchange, 200, BOOKINGS);
+                } else {
+                    respond(exchange, 404, "{\"error\":\"This booking not found\"}");
+                }
+            });
+            server.createContext("/bookings/export", ReactiveClientTest::export);
+            server.createContext("/items/import", exchange -> {
+                String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                respond(exchange, 200, "{\"contentType\":\"" + exchange.getRequestHeaders().getFirst("Content-Type")
+                        + "\",\"body\":\"" + body.replace("\"", "\\\"").replace("\n", "\\n") + "\"}");
+            });
+            server.createContext("/users", exchange -> {
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                respond(exchange, 200, "{\"id\":1}");
+            });
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * выгрузка частями по 100 строк без длины тела (chunked); пользователь 2 не найден
+     */
+    static void export(HttpExchange exchange) throws IOException {
+        if (exchange.getRequestHeaders().getFirst("X-Sharer-User-Id").equals("2")) {
+            respond(exchange, 404, "{\"error\":\"User not found\"}");
+            return;
+        }
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+        if (!accept.contains(MediaType.APPLICATION_NDJSON_VALUE)
+                || !exchange.getRequestURI().getQuery().equals("state=PAST")) {
+            respond(exchange, 400, "{\"error\":\"Bad request\"}");
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Type", MediaType.APPLICATION_NDJSON_VALUE);
+        exchange.sendResponseHeaders(200, 0);
+        String[] lines = EXPORT.split("\n");
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (int i = 0; i < lines.length; i++) {
+                out.write((lines[i] + "\n").getBytes(StandardCharsets.UTF_8));
+                if (i % 100 == 99) {
+                    out.flush();
+                }
+            }
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -7,16 +7,24 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemUpdate;
 
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.ForwardedResponses.forwarded;
+import static ru.practicum.shareit.ForwardedResponses.upstream;
 
 /**
  * естовый класс контроллера вещей
@@ -37,10 +45,9 @@ class ItemControllerTest {
     @Test
     void test06_findAllByUser() throws Exception {
         Mockito
-                .when(client.findAllByUser(Mockito.anyLong(), Mockito.anyInt(), Mockito.anyInt()))
-                .thenReturn(new ResponseEntity<>(HttpStatus.OK));
-        this.mockMvc.perform(get("/items").header("X-Sharer-User-Id", 1))
-                .andExpect(status().isOk());
+                .when(client.findAllByUser(Mockito.anyLong(), Mockito.anyInt(), Mockito.anyInt(), Mockito.any()))
+                .thenReturn(upstream());
+        forwarded(mockMvc, get("/items").header("X-Sharer-User-Id", 1));
         this.mockMvc.perform(get("/items").header("X-Sharer-User-Id", 0))
                 .andExpect(status().isBadRequest());
         this.mockMvc.perform(get("/items?from=-1&size=4").header("X-Sharer-User-Id", 1))
@@ -56,9 +63,8 @@ class ItemControllerTest {
     void test07_getById() throws Exception {
         Mockito
                 .when(client.getById(Mockito.anyLong(), Mockito.anyLong()))
-                .thenReturn(new ResponseEntity<>(HttpStatus.OK));
-        this.mockMvc.perform(get("/items/1").header("X-Sharer-User-Id", 10))
-                .andExpect(status().isOk());
+                .thenReturn(upstream());
+        forwarded(mockMvc, get("/items/1").header("X-Sharer-User-Id", 10));
         this.mockMvc.perform(get("/items/1").header("X-Sharer-User-Id", 0))
                 .andExpect(status().isBadRequest());
         this.mockMvc.perform(get("/items/0").header("X-Sharer-User-Id", 1))
@@ -77,11 +83,10 @@ class ItemControllerTest {
                 .build();
         Mockito
                 .when(client.create(Mockito.anyLong(), Mockito.any(ItemDto.class)))
-                .thenReturn(new ResponseEntity<>(HttpStatus.OK));
-        this.mockMvc.perform(post("/items").header("X-Sharer-User-Id", 1)
-                        .content(mapper.writeValueAsString(dto))
-                        .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk());
+                .thenReturn(upstream());
+        forwarded(mockMvc, post("/items").header("X-Sharer-User-Id", 1)
+                .content(mapper.writeValueAsString(dto))
+                .contentType(MediaType.APPLICATION_JSON));
         dto.setName("");
         this.mockMvc.perform(post("/items").header("X-Sharer-User-Id", 1)
                         .content(mapper.writeValueAsString(dto))
@@ -114,11 +119,10 @@ class ItemControllerTest {
         ItemUpdate dto = ItemUpdate.builder().build();
         Mockito
                 .when(client.update(Mockito.anyLong(), Mockito.any(ItemUpdate.class), Mockito.anyLong()))
-                .thenReturn(new ResponseEntity<>(HttpStatus.OK));
-        this.mockMvc.perform(patch("/items/1").header("X-Sharer-User-Id", 1)
-                        .content(mapper.writeValueAsString(dto))
-                        .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk());
+                .thenReturn(upstream());
+        forwarded(mockMvc, patch("/items/1").header("X-Sharer-User-Id", 1)
+                .content(mapper.writeValueAsString(dto))
+                .contentType(MediaType.APPLICATION_JSON));
         this.mockMvc.perform(patch("/items/1").header("X-Sharer-User-Id", 0)
                         .content(mapper.writeValueAsString(dto))
                         .contentType(MediaType.APPLICATION_JSON))
@@ -136,9 +140,8 @@ class ItemControllerTest {
     void test10_search() throws Exception {
         Mockito
                 .when(client.search(Mockito.anyLong(), Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt()))
-                .thenReturn(new ResponseEntity<>(HttpStatus.OK));
-        this.mockMvc.perform(get("/items/search").header("X-Sharer-User-Id", 10))
-                .andExpect(status().isOk());
+                .thenReturn(upstream());
+        forwarded(mockMvc, get("/items/search").header("X-Sharer-User-Id", 10));
         this.mockMvc.perform(get("/items/search").header("X-Sharer-User-Id", 0))
                 .andExpect(status().isBadRequest());
         this.mockMvc.perform(get("/items/search?from=-1&size=2").header("X-Sharer-User-Id", 10))
@@ -157,11 +160,10 @@ class ItemControllerTest {
                 .build();
         Mockito
                 .when(client.addComment(Mockito.anyLong(), Mockito.anyLong(), Mockito.any(CommentDto.class)))
-                .thenReturn(new ResponseEntity<>(HttpStatus.OK));
-        this.mockMvc.perform(post("/items/1/comment").header("X-Sharer-User-Id", 1)
-                        .content(mapper.writeValueAsString(dto))
-                        .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk());
+                .thenReturn(upstream());
+        forwarded(mockMvc, post("/items/1/comment").header("X-Sharer-User-Id", 1)
+                .content(mapper.writeValueAsString(dto))
+                .contentType(MediaType.APPLICATION_JSON));
         dto.setText("");
         this.mockMvc.perform(post("/items/1/comment").header("X-Sharer-User-Id", 1)
                         .content(mapper.writeValueAsString(dto))
@@ -177,4 +179,79 @@ class ItemControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    /**
+     * проверка доступности вещи на период
+     */
+    @Test
+    void test21_getAvailability() throws Exception {
+        Mockito
+                .when(client.getAvailability(Mockito.anyLong(), Mockito.anyLong(), Mockito.any(LocalDateTime.class),
+                        Mockito.any(LocalDateTime.class)))
+                .thenReturn(upstream());
+        forwarded(mockMvc, get("/items/1/availability?start=2030-01-01T10:00:00&end=2030-01-02T10:00:00")
+                .header("X-Sharer-User-Id", 1));
+        this.mockMvc.perform(get("/items/1/availability?start=2030-01-02T10:00:00&end=2030-01-01T10:00:00")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isBadRequest());
+        this.mockMvc.perform(get("/items/1/availability?start=2030-01-01T10:00:00&end=2030-01-01T10:00:00")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isBadRequest());
+        this.mockMvc.perform(get("/items/0/availability?start=2030-01-01T10:00:00&end=2030-01-02T10:00:00")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isBadRequest());
+        this.mockMvc.perform(get("/items/1/availability?start=2030-01-01T10:00:00")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * массовый импорт: тело JSON или NDJSON передаётся клиенту с типом содержимого запроса (вместе с charset)
+     */
+    @Test
+    void test28_importItems() throws Exception {
+        Mockito
+                .when(client.importItems(Mockito.anyLong(), Mockito.any(InputStream.class), Mockito.any(MediaType.class)))
+                .thenReturn(upstream());
+        forwarded(mockMvc, post("/items/import").header("X-Sharer-User-Id", 1)
+                .content("{\"name\":\"drill\"}\n{\"name\":\"saw\"}")
+                .contentType(MediaType.APPLICATION_NDJSON));
+        Mockito.verify(client).importItems(Mockito.eq(1L), Mockito.any(InputStream.class),
+                Mockito.argThat(type -> MediaType.APPLICATION_NDJSON.isCompatibleWith(type)));
+        forwarded(mockMvc, post("/items/import").header("X-Sharer-User-Id", 1)
+                .content("[]")
+                .contentType(MediaType.APPLICATION_JSON));
+        this.mockMvc.perform(post("/items/import").header("X-Sharer-User-Id", 1)
+                        .content("drill")
+                        .contentType(MediaType.TEXT_PLAIN))
+                .andExpect(status().isUnsupportedMediaType());
+        this.mockMvc.perform(post("/items/import").header("X-Sharer-User-Id", 0)
+                        .content("[]")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * на импорт действует собственный тайм-аут shareit-server.import-timeout, а на остальные запросы - общий
+     * тайм-аут асинхронной обработки
+     */
+    @Test
+    void test76_importTimeout() throws Exception {
+        Mockito
+                .when(client.importItems(Mockito.anyLong(), Mockito.any(InputStream.class), Mockito.any(MediaType.class)))
+                .thenReturn(Mono.never());
+        Mockito
+                .when(client.getById(Mockito.anyLong(), Mockito.anyLong()))
+                .thenReturn(Mono.never());
+        MvcResult importResult = this.mockMvc.perform(post("/items/import").header("X-Sharer-User-Id", 1)
+                        .content("[]")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(Duration.ofMinutes(30).toMillis(), importResult.getRequest().getAsyncContext().getTimeout());
+        MvcResult getResult = this.mockMvc.perform(get("/items/1").header("X-Sharer-User-Id", 1))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(Duration.ofSeconds(40).toMillis(), getResult.getRequest().getAsyncContext().getTimeout());
+    }
+}
@@ -7,9 +7,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
@@ -18,6 +16,8 @@ import java.time.LocalDateTime;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.ForwardedResponses.forwarded;
+import static ru.practicum.shareit.ForwardedResponses.upstream;
 
 /**
  * тестовый класс запросов на бронирование вещей
@@ -43,11 +43,10 @@ class RequestControllerTest {
                 .build();
         Mockito
                 .when(client.create(Mockito.anyLong(), Mockito.any(ItemRequestDto.class)))
-                .thenReturn(new ResponseEntity<>(HttpStatus.OK));
-        this.mockMvc.perform(post("/requests").header("X-Sharer-User-Id", 1)
-                        .content(mapper.writeValueAsString(dto))
-                        .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk());
+                .thenReturn(upstream());
+        forwarded(mockMvc, post("/requests").header("X-Sharer-User-Id", 1)
+                .content(mapper.writeValueAsString(dto))
+                .contentType(MediaType.APPLICATION_JSON));
         dto.setDescription("");
         this.mockMvc.perform(post("/requests").header("X-Sharer-User-Id", 1)
                         .content(mapper.writeValueAsString(dto))
@@ -73,9 +72,8 @@ class RequestControllerTest {
     void test12_findAllByUser() throws Exception {
         Mockito
                 .when(client.findAllByUser(Mockito.anyLong()))
-                .thenReturn(new ResponseEntity<>(HttpStatus.OK));
-        this.mockMvc.perform(get("/requests").header("X-Sharer-User-Id", 10))
-                .andExpect(status().isOk());
+                .thenReturn(upstream());
+        forwarded(mockMvc, get("/requests").header("X-Sharer-User-Id", 10));
         this.mockMvc.perform(get("/requests").header("X-Sharer-User-Id", 0))
                 .andExpect(status().isBadRequest());
     }
@@ -86,10 +84,9 @@ class RequestControllerTest {
     @Test
     void test13_findAllOnPage() throws Exception {
         Mockito
-                .when(client.findAllOnPage(Mockito.anyLong(), Mockito.anyInt(), Mockito.anyInt()))
-                .thenReturn(new ResponseEntity<>(HttpStatus.OK));
-        this.mockMvc.perform(get("/requests/all").header("X-Sharer-User-Id", 1))
-                .andExpect(status().isOk());
+                .when(client.findAllOnPage(Mockito.anyLong(), Mockito.anyInt(), Mockito.anyInt(), Mockito.any()))
+                .thenReturn(upstream());
+        forwarded(mockMvc, get("/requests/all").header("X-Sharer-User-Id", 1));
         this.mockMvc.perform(get("/requests/all").header("X-Sharer-User-Id", 0))
                 .andExpect(status().isBadRequest());
         this.mockMvc.perform(get("/requests/all?from=-1&size=4").header("X-Sharer-User-Id", 1))
@@ -105,9 +102,8 @@ class RequestControllerTest {
     void test14_getById() throws Exception {
         Mockito
                 .when(client.getById(Mockito.anyLong(), Mockito.anyLong()))
-                .thenReturn(new ResponseEntity<>(HttpStatus.OK));
-        this.mockMvc.perform(get("/requests/1").header("X-Sharer-User-Id", 10))
-                .andExpect(status().isOk());
+                .thenReturn(upstream());
+        forwarded(mockMvc, get("/requests/1").header("X-Sharer-User-Id", 10));
         this.mockMvc.perform(get("/requests/1").header("X-Sharer-User-Id", 0))
                 .andExpect(status().isBadRequest());
         this.mockMvc.perform(get("/requests/0").header("X-Sharer-User-Id", 1))
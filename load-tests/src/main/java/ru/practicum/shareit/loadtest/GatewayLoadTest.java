@@ -0,0 +1,112 @@
+package ru.practicum.shareit.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItGateway;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * нагрузочный тест шлюза: сравнение блокирующего, реактивного режимов пересылки запросов и виртуальных потоков
+ * при медленном shareIt-server (сервер заменён заглушкой с фиксированной задержкой ответа)
+ * <p>
+ * параметры передаются в виде ключ=значение:
+ * mode (blocking, reactive, virtual или all; virtual требует JDK 21), requests, concurrency, latency (мс),
+ * threads (потоки Tomcat шлюза)
+ */
+public class GatewayLoadTest {
+    private static final byte[] USER = "{\"id\":1,\"name\":\"user\",\"email\":\"user@shareit.ru\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final int requests;
+    private final int concurrency;
+    private final int latency;
+    private final int threads;
+
+    private GatewayLoadTest(Map<String, String> args) {
+        requests = Integer.parseInt(args.getOrDefault("requests", "5000"));
+        concurrency = Integer.parseInt(args.getOrDefault("concurrency", "500"));
+        latency = Integer.parseInt(args.getOrDefault("latency", "100"));
+        threads = Integer.parseInt(args.getOrDefault("threads", "50"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> parameters = LoadGenerator.parse(args);
+        String mode = parameters.getOrDefault("mode", "all");
+        List<String> modes = mode.equals("all") ? List.of("blocking", "reactive", "virtual") : List.of(mode);
+        GatewayLoadTest test = new GatewayLoadTest(parameters);
+
+        ExecutorService stubExecutor = Executors.newCachedThreadPool();
+        HttpServer stub = test.startStub(stubExecutor);
+        try {
+            System.out.printf("requests=%d concurrency=%d latency=%dms threads=%d%n",
+                    test.requests, test.concurrency, test.latency, test.threads);
+            LoadGenerator.printHeader();
+            for (String clientMode : modes) {
+                test.run(clientMode, stub.getAddress().getPort());
+            }
+        } finally {
+            stub.stop(0);
+            stubExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * прогон нагрузки на шлюз в заданном режиме
+     *
+     * @param mode     режим пересылки запросов или virtual (блокирующий режим на виртуальных потоках)
+     * @param stubPort порт заглушки сервера
+     */
+    private void run(String mode, int stubPort) throws InterruptedException {
+        ConfigurableApplicationContext gateway = new SpringApplicationBuilder(ShareItGateway.class).run(
+                "--server.port=0",
+                "--server.tomcat.threads.max=" + threads,
+                "--server.tomcat.max-connections=" + (concurrency * 2),
+                "--server.tomcat.accept-count=" + concurrency,
+                "--shareit-server.url=http://localhost:" + stubPort,
+                "--shareit-server.mode=" + (mode.equals("reactive") ? "reactive" : "blocking"),
+                "--shareit.threads.virtual=" + mode.equals("virtual"),
+                "--shareit-server.max-connections=" + concurrency,
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework.web.client.RestTemplate=WARN");
+        try {
+            URI uri = URI.create("http://localhost:" + gateway.getEnvironment().getProperty("local.server.port")
+                    + "/users/1");
+            new LoadGenerator(requests, concurrency).run(mode, uri);
+        } finally {
+            gateway.close();
+        }
+    }
+
+    private HttpServer startStub(ExecutorService executor) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), concurrency * 2);
+        server.createContext("/users", this::respond);
+        server.setExecutor(executor);
+        server.start();
+        return server;
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, USER.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(USER);
+        }
+    }
+}
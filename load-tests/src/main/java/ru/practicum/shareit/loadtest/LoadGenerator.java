@@ -0,0 +1,208 @@
+package ru.practicum.shareit.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * генератор нагрузки: заданное число запросов с ограничением числа одновременно выполняемых,
+ * вывод пропускной способности, перцентилей времени ответа и числа ошибок (ответов не 2xx)
+ */
+class LoadGenerator {
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final int requests;
+    private final int concurrency;
+
+    LoadGenerator(int requests, int concurrency) {
+        this.requests = requests;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * разбор аргументов вида ключ=значение
+     *
+     * @param args аргументы командной строки
+     * @return параметры
+     */
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> parameters = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            parameters.put(pair[0], pair.length > 1 ? pair[1] : "");
+        }
+        return parameters;
+    }
+
+    static void printHeader() {
+        System.out.printf("%-10s %12s %10s %10s %10s %8s%n", "mode", "req/s", "p50, ms", "p99, ms", "max, ms",
+                "errors");
+    }
+
+    /**
+     * прогрев и замер нагрузки на адрес с выводом строки результата
+     *
+     * @param mode название прогона
+     * @param uri  адрес запроса
+     */
+    void run(String mode, URI uri) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        fire(i -> request, Math.min(requests, concurrency * 2));
+        long started = System.nanoTime();
+        Result result = fire(i -> request, requests);
+        double seconds = (System.nanoTime() - started) / 1e9;
+        long[] latencies = result.latencies.clone();
+        Arrays.sort(latencies);
+        System.out.printf("%-10s %12.1f %10.1f %10.1f %10.1f %8d%n", mode, requests / seconds,
+                percentile(latencies, 0.5), percentile(latencies, 0.99),
+                latencies[latencies.length - 1] / 1e6, result.errors());
+    }
+
+    /**
+     * план смешанной нагрузки: прогрев и замер, операции выбираются по весам генератором с фиксированным зерном,
+     * поэтому повторный прогон выполняет ту же последовательность
+     *
+     * @param operations операции
+     * @param seed       зерно генератора
+     * @return индексы операций: сначала прогрев, затем requests запросов замера
+     */
+    int[] plan(List<Operation> operations, long seed) {
+        int total = operations.stream().mapToInt(operation -> operation.weight).sum();
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] plan = new int[warmupCount() + requests];
+        for (int i = 0; i < plan.length; i++) {
+            int ticket = random.nextInt(total);
+            int index = 0;
+            while (ticket >= operations.get(index).weight) {
+                ticket -= operations.get(index).weight;
+                index++;
+            }
+            plan[i] = index;
+        }
+        return plan;
+    }
+
+    /**
+     * прогрев и замер смешанной нагрузки по плану с выводом строки результата для каждой операции и итога
+     *
+     * @param operations операции
+     * @param plan       план, построенный методом plan
+     */
+    void run(List<Operation> operations, int[] plan) throws InterruptedException {
+        int warmup = warmupCount();
+        fire(i -> operations.get(plan[i]).requests.get(), warmup);
+        long started = System.nanoTime();
+        Result result = fire(i -> operations.get(plan[warmup + i]).requests.get(), requests);
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        System.out.printf("%-16s %8s %10s %10s %10s %10s %10s %8s%n", "operation", "count", "req/s",
+                "p50, ms", "p95, ms", "p99, ms", "max, ms", "errors");
+        for (int index = 0; index < operations.size(); index++) {
+            int operation = index;
+            int[] requestIndexes = IntStream.range(0, requests)
+                    .filter(i -> plan[warmup + i] == operation)
+                    .toArray();
+            printMixLine(operations.get(index).name, result, requestIndexes, seconds);
+        }
+        printMixLine("total", result, IntStream.range(0, requests).toArray(), seconds);
+    }
+
+    private void printMixLine(String name, Result result, int[] requestIndexes, double seconds) {
+        if (requestIndexes.length == 0) {
+            return;
+        }
+        long[] latencies = Arrays.stream(requestIndexes).mapToLong(i -> result.latencies[i]).sorted().toArray();
+        long errors = Arrays.stream(requestIndexes).filter(i -> result.failed[i]).count();
+        System.out.printf("%-16s %8d %10.1f %10.1f %10.1f %10.1f %10.1f %7.2f%%%n", name, latencies.length,
+                latencies.length / seconds, percentile(latencies, 0.5), percentile(latencies, 0.95),
+                percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6,
+                100.0 * errors / latencies.length);
+    }
+
+    private int warmupCount() {
+        return Math.min(requests, concurrency * 2);
+    }
+
+    /**
+     * отправка заданного числа запросов с ограничением числа одновременно выполняемых
+     * (запросы строятся последовательно в потоке отправки)
+     *
+     * @param requestAt построитель запроса по его номеру
+     * @param count     число запросов
+     * @return время выполнения каждого запроса в наносекундах и признак неуспешного ответа
+     */
+    private Result fire(IntFunction<HttpRequest> requestAt, int count) throws InterruptedException {
+        Semaphore permits = new Semaphore(concurrency);
+        long[] latencies = new long[count];
+        boolean[] failed = new boolean[count];
+        CompletableFuture<?>[] futures = new CompletableFuture[count];
+        for (int i = 0; i < count; i++) {
+            HttpRequest request = requestAt.apply(i);
+            permits.acquire();
+            int index = i;
+            long started = System.nanoTime();
+            futures[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        latencies[index] = System.nanoTime() - started;
+                        failed[index] = error != null || response.statusCode() / 100 != 2;
+                        permits.release();
+                    });
+        }
+        CompletableFuture.allOf(futures).exceptionally(error -> null).join();
+        return new Result(latencies, failed);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    /**
+     * операция смешанной нагрузки: название, вес в общем потоке и построитель очередного запроса
+     */
+    static class Operation {
+        private final String name;
+        private final int weight;
+        private final Supplier<HttpRequest> requests;
+
+        Operation(String name, int weight, Supplier<HttpRequest> requests) {
+            this.name = name;
+            this.weight = weight;
+            this.requests = requests;
+        }
+
+        String getName() {
+            return name;
+        }
+    }
+
+    private static class Result {
+        private final long[] latencies;
+        private final boolean[] failed;
+
+        private Result(long[] latencies, boolean[] failed) {
+            this.latencies = latencies;
+            this.failed = failed;
+        }
+
+        private int errors() {
+            int errors = 0;
+            for (boolean value : failed) {
+                if (value) {
+                    errors++;
+                }
+            }
+            return errors;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * нагрузочный тест shareIt-server на встроенной H2: сравнение фиксированного пула потоков Tomcat и виртуальных
+ * потоков с ограничением соединений с БД; сервер запускается отдельным процессом из исполняемого jar
+ * <p>
+ * параметры передаются в виде ключ=значение:
+ * mode (platform, virtual или all; virtual требует JDK 21), requests, concurrency, threads (потоки Tomcat),
+ * pool (размер пула соединений), jar (путь к shareit-server-*-exec.jar), port
+ */
+public class ServerLoadTest {
+    private static final String USER = "{\"name\":\"user\",\"email\":\"user@shareit.ru\"}";
+
+    private final int requests;
+    private final int concurrency;
+    private final int threads;
+    private final int pool;
+    private final String jar;
+    private final int port;
+
+    private ServerLoadTest(Map<String, String> args) {
+        requests = Integer.parseInt(args.getOrDefault("requests", "20000"));
+        concurrency = Integer.parseInt(args.getOrDefault("concurrency", "500"));
+        threads = Integer.parseInt(args.getOrDefault("threads", "50"));
+        pool = Integer.parseInt(args.getOrDefault("pool", "10"));
+        jar = args.getOrDefault("jar", ServerProcess.DEFAULT_JAR);
+        port = Integer.parseInt(args.getOrDefault("port", "19090"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> parameters = LoadGenerator.parse(args);
+        String mode = parameters.getOrDefault("mode", "all");
+        List<String> modes = mode.equals("all") ? List.of("platform", "virtual") : List.of(mode);
+        ServerLoadTest test = new ServerLoadTest(parameters);
+
+        System.out.printf("requests=%d concurrency=%d threads=%d pool=%d%n",
+                test.requests, test.concurrency, test.threads, test.pool);
+        LoadGenerator.printHeader();
+        for (String threadMode : modes) {
+            test.run(threadMode);
+        }
+    }
+
+    /**
+     * прогон нагрузки на сервер: чтение пользователя по id (запрос в БД на каждый вызов)
+     *
+     * @param mode platform или virtual
+     */
+    private void run(String mode) throws IOException, InterruptedException {
+        try (ServerProcess server = ServerProcess.start(jar, port, List.of(
+                "--server.tomcat.threads.max=" + threads,
+                "--server.tomcat.max-connections=" + (concurrency * 2),
+                "--server.tomcat.accept-count=" + concurrency,
+                "--spring.datasource.hikari.maximum-pool-size=" + pool,
+                "--shareit.threads.virtual=" + mode.equals("virtual")))) {
+            HttpClient client = HttpClient.newHttpClient();
+            client.send(HttpRequest.newBuilder(URI.create(server.getBaseUrl() + "/users"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(USER))
+                            .build(),
+                    HttpResponse.BodyHandlers.discarding());
+            new LoadGenerator(requests, concurrency).run(mode, URI.create(server.getBaseUrl() + "/users/1"));
+        }
+    }
+}
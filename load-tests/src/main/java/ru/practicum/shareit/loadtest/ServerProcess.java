@@ -0,0 +1,87 @@
+package ru.practicum.shareit.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * shareIt-server, запущенный отдельным процессом из исполняемого jar на встроенной H2
+ * (его классы нельзя загрузить вместе с классами шлюза - совпадают имена бинов)
+ */
+class ServerProcess implements AutoCloseable {
+    static final String DEFAULT_JAR = "../server/target/shareit-server-0.0.1-SNAPSHOT-exec.jar";
+
+    private final Process process;
+    private final String baseUrl;
+
+    private ServerProcess(Process process, int port) {
+        this.process = process;
+        this.baseUrl = "http://localhost:" + port;
+    }
+
+    /**
+     * запуск сервера с профилем test и ожидание его готовности
+     *
+     * @param jar        путь к shareit-server-*-exec.jar
+     * @param port       порт сервера
+     * @param properties дополнительные свойства в виде --ключ=значение
+     * @return запущенный сервер
+     */
+    static ServerProcess start(String jar, int port, List<String> properties) throws IOException,
+            InterruptedException {
+        File executable = new File(jar);
+        if (!executable.isFile()) {
+            throw new IllegalStateException("Server jar not found: " + executable.getAbsolutePath()
+                    + ", run mvn install -DskipTests first");
+        }
+        List<String> command = new ArrayList<>(List.of(
+                ProcessHandle.current().info().command().orElse("java"), "-jar", executable.getAbsolutePath(),
+                "--spring.profiles.active=test",
+                "--server.port=" + port,
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"));
+        command.addAll(properties);
+        ServerProcess server = new ServerProcess(new ProcessBuilder(command).inheritIO().start(), port);
+        try {
+            server.awaitStarted();
+        } catch (RuntimeException | InterruptedException e) {
+            server.close();
+            throw e;
+        }
+        return server;
+    }
+
+    String getBaseUrl() {
+        return baseUrl;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        process.waitFor();
+    }
+
+    private void awaitStarted() throws InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health")).build();
+        for (int i = 0; i < 600; i++) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Server exited with code " + process.exitValue());
+            }
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // сервер ещё не принимает соединения
+            }
+            Thread.sleep(100);
+        }
+        throw new IllegalStateException("Server did not start in 60 seconds");
+    }
+}
@@ -0,0 +1,260 @@
+package ru.practicum.shareit.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItGateway;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * сквозной нагрузочный тест связки шлюз - shareIt-server: сервер запускается отдельным процессом на встроенной H2,
+ * шлюз - в этом процессе; данные создаются через API шлюза, затем выполняется смесь запросов
+ * (поиск вещей, списки бронирований автора и владельца, создание и подтверждение бронирований)
+ * <p>
+ * параметры передаются в виде ключ=значение:
+ * requests, concurrency, mode (blocking, reactive или virtual - режим шлюза и сервера; virtual требует JDK 21),
+ * threads (потоки Tomcat шлюза и сервера), pool (размер пула соединений сервера), owners, bookers, items,
+ * mix (веса операций, например search:40,bookings:20,owner-bookings:15,create:15,approve:10), seed,
+ * jar (путь к shareit-server-*-exec.jar), port (порт сервера)
+ */
+public class SystemLoadTest {
+    private static final String[] WORDS = {"drill", "ladder", "tent", "bike", "camera", "kayak", "projector"};
+    private static final String[] STATES = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"};
+    private static final int PAGE_SIZE = 20;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final int requests;
+    private final int concurrency;
+    private final String mode;
+    private final int threads;
+    private final int pool;
+    private final int owners;
+    private final int bookers;
+    private final int items;
+    private final String mix;
+    private final long seed;
+    private final String jar;
+    private final int port;
+    private final SplittableRandom random;
+    private final LocalDateTime firstSlot = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+    private String gatewayUrl;
+    private long[] ownerIds;
+    private long[] bookerIds;
+    private long[] itemIds;
+    private long[] itemOwnerIds;
+    private long[] pendingIds;
+    private long[] pendingOwnerIds;
+    private int approved;
+    private long slot;
+    private long calls;
+
+    private SystemLoadTest(Map<String, String> args) {
+        requests = Integer.parseInt(args.getOrDefault("requests", "20000"));
+        concurrency = Integer.parseInt(args.getOrDefault("concurrency", "200"));
+        mode = args.getOrDefault("mode", "blocking");
+        threads = Integer.parseInt(args.getOrDefault("threads", "200"));
+        pool = Integer.parseInt(args.getOrDefault("pool", "10"));
+        owners = Integer.parseInt(args.getOrDefault("owners", "50"));
+        bookers = Integer.parseInt(args.getOrDefault("bookers", "500"));
+        items = Integer.parseInt(args.getOrDefault("items", "1000"));
+        mix = args.getOrDefault("mix", "search:40,bookings:20,owner-bookings:15,create:15,approve:10");
+        seed = Long.parseLong(args.getOrDefault("seed", "42"));
+        jar = args.getOrDefault("jar", ServerProcess.DEFAULT_JAR);
+        port = Integer.parseInt(args.getOrDefault("port", "19090"));
+        random = new SplittableRandom(seed);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new SystemLoadTest(LoadGenerator.parse(args)).run();
+    }
+
+    private void run() throws IOException, InterruptedException {
+        boolean virtual = mode.equals("virtual");
+        try (ServerProcess server = ServerProcess.start(jar, port, List.of(
+                "--server.tomcat.threads.max=" + threads,
+                "--server.tomcat.accept-count=" + concurrency,
+                "--spring.datasource.hikari.maximum-pool-size=" + pool,
+                "--shareit.threads.virtual=" + virtual))) {
+            ConfigurableApplicationContext gateway = new SpringApplicationBuilder(ShareItGateway.class).run(
+                    "--server.port=0",
+                    "--server.tomcat.threads.max=" + threads,
+                    "--server.tomcat.max-connections=" + (concurrency * 2),
+                    "--server.tomcat.accept-count=" + concurrency,
+                    "--shareit-server.url=" + server.getBaseUrl(),
+                    "--shareit-server.mode=" + (mode.equals("reactive") ? "reactive" : "blocking"),
+                    "--shareit.threads.virtual=" + virtual,
+                    "--shareit-server.max-connections=" + concurrency,
+                    "--spring.main.banner-mode=off",
+                    "--logging.level.root=WARN",
+                    "--logging.level.org.springframework.web.client.RestTemplate=WARN");
+            try {
+                gatewayUrl = "http://localhost:" + gateway.getEnvironment().getProperty("local.server.port");
+                LoadGenerator generator = new LoadGenerator(requests, concurrency);
+                List<LoadGenerator.Operation> operations = operations();
+                int[] plan = generator.plan(operations, seed);
+                int approveIndex = indexOf(operations, "approve");
+                long approvals = Arrays.stream(plan).filter(index -> index == approveIndex).count();
+                populate((int) approvals);
+                System.out.printf("requests=%d concurrency=%d mode=%s threads=%d pool=%d owners=%d bookers=%d "
+                                + "items=%d mix=%s%n", requests, concurrency, mode, threads, pool, owners, bookers,
+                        items, mix);
+                generator.run(operations, plan);
+            } finally {
+                gateway.close();
+            }
+        }
+    }
+
+    /**
+     * операции смеси с весами из параметра mix
+     *
+     * @return операции
+     */
+    private List<LoadGenerator.Operation> operations() {
+        List<LoadGenerator.Operation> operations = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] pair = entry.split(":");
+            int weight = Integer.parseInt(pair[1].trim());
+            String name = pair[0].trim();
+            switch (name) {
+                case "search":
+                    operations.add(new LoadGenerator.Operation(name, weight, () ->
+                            get("/items/search?text=" + WORDS[random.nextInt(WORDS.length)] + "&from=0&size="
+                                    + PAGE_SIZE, pick(bookerIds))));
+                    break;
+                case "bookings":
+                    operations.add(new LoadGenerator.Operation(name, weight, () ->
+                            get("/bookings?state=" + nextState() + "&from=0&size=" + PAGE_SIZE, pick(bookerIds))));
+                    break;
+                case "owner-bookings":
+                    operations.add(new LoadGenerator.Operation(name, weight, () ->
+                            get("/bookings/owner?state=" + nextState() + "&from=0&size=" + PAGE_SIZE,
+                                    pick(ownerIds))));
+                    break;
+                case "create":
+                    operations.add(new LoadGenerator.Operation(name, weight, this::createBooking));
+                    break;
+                case "approve":
+                    operations.add(new LoadGenerator.Operation(name, weight, this::approveBooking));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown operation: " + name);
+            }
+        }
+        return operations;
+    }
+
+    /**
+     * создание пользователей, вещей и ожидающих подтверждения бронирований через API шлюза
+     *
+     * @param pending число бронирований для операций подтверждения
+     */
+    private void populate(int pending) throws IOException, InterruptedException {
+        ownerIds = new long[owners];
+        for (int i = 0; i < owners; i++) {
+            ownerIds[i] = create("/users", 0, "{\"name\":\"owner " + i + "\",\"email\":\"owner" + i
+                    + "@shareit.ru\"}");
+        }
+        bookerIds = new long[bookers];
+        for (int i = 0; i < bookers; i++) {
+            bookerIds[i] = create("/users", 0, "{\"name\":\"booker " + i + "\",\"email\":\"booker" + i
+                    + "@shareit.ru\"}");
+        }
+        itemIds = new long[items];
+        itemOwnerIds = new long[items];
+        for (int i = 0; i < items; i++) {
+            String word = WORDS[i % WORDS.length];
+            itemOwnerIds[i] = ownerIds[i % owners];
+            itemIds[i] = create("/items", itemOwnerIds[i], "{\"name\":\"" + word + " " + i
+                    + "\",\"description\":\"" + word + " for rent\",\"available\":true}");
+        }
+        pendingIds = new long[pending];
+        pendingOwnerIds = new long[pending];
+        for (int i = 0; i < pending; i++) {
+            int item = i % items;
+            pendingOwnerIds[i] = itemOwnerIds[item];
+            pendingIds[i] = create("/bookings", pick(bookerIds), booking(itemIds[item]));
+        }
+    }
+
+    private HttpRequest createBooking() {
+        return HttpRequest.newBuilder(URI.create(gatewayUrl + "/bookings"))
+                .header("X-Sharer-User-Id", String.valueOf(pick(bookerIds)))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(booking(itemIds[random.nextInt(items)])))
+                .build();
+    }
+
+    /**
+     * подтверждение очередного ожидающего бронирования его владельцем (каждое подтверждается один раз)
+     */
+    private HttpRequest approveBooking() {
+        int index = approved++;
+        return HttpRequest.newBuilder(URI.create(gatewayUrl + "/bookings/" + pendingIds[index] + "?approved="
+                        + (index % 4 != 0)))
+                .header("X-Sharer-User-Id", String.valueOf(pendingOwnerIds[index]))
+                .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    /**
+     * тело запроса бронирования на следующий свободный часовой интервал
+     * (интервалы не повторяются, поэтому бронирования никогда не пересекаются)
+     */
+    private String booking(long itemId) {
+        LocalDateTime start = firstSlot.plusHours(2 * slot++);
+        return "{\"itemId\":" + itemId + ",\"start\":\"" + start + "\",\"end\":\"" + start.plusHours(1) + "\"}";
+    }
+
+    private HttpRequest get(String path, long userId) {
+        return HttpRequest.newBuilder(URI.create(gatewayUrl + path))
+                .header("X-Sharer-User-Id", String.valueOf(userId))
+                .GET()
+                .build();
+    }
+
+    private long create(String path, long userId, String body) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(gatewayUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (userId > 0) {
+            request.header("X-Sharer-User-Id", String.valueOf(userId));
+        }
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("POST " + path + " returned " + response.statusCode() + ": "
+                    + response.body());
+        }
+        return mapper.readTree(response.body()).get("id").asLong();
+    }
+
+    private long pick(long[] ids) {
+        return ids[random.nextInt(ids.length)];
+    }
+
+    private String nextState() {
+        return STATES[(int) (calls++ % STATES.length)];
+    }
+
+    private static int indexOf(List<LoadGenerator.Operation> operations, String name) {
+        for (int i = 0; i < operations.size(); i++) {
+            if (operations.get(i).getName().equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
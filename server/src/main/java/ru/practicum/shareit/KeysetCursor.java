@@ -0,0 +1,107 @@
+package ru.practicum.shareit;
+
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.exception.CursorValidateException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * курсор постраничной выборки по ключу (keyset pagination): позиция и id последнего возвращённого элемента
+ */
+public class KeysetCursor {
+    /**
+     * заголовок ответа, в котором возвращается курсор следующей страницы
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String SEPARATOR = "|";
+    private final LocalDateTime position;
+    private final long id;
+
+    protected KeysetCursor(LocalDateTime position, long id) {
+        this.position = position;
+        this.id = id;
+    }
+
+    public static KeysetCursor of(LocalDateTime position, long id) {
+        return new KeysetCursor(position, id);
+    }
+
+    public static KeysetCursor of(long id) {
+        return new KeysetCursor(null, id);
+    }
+
+    /**
+     * разбор курсора, полученного от клиента
+     *
+     * @param cursor строковое представление курсора
+     * @return курсор или null, если курсор не передан
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            if (separator < 0) {
+                return of(Long.parseLong(value));
+            }
+            return of(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new CursorValidateException(cursor);
+        }
+    }
+
+    /**
+     * формирование ответа со страницей выборки и курсором следующей страницы в заголовке
+     * (курсор передаётся только для полной страницы)
+     *
+     * @param content  элементы страницы
+     * @param size     размер страницы
+     * @param cursorOf функция получения курсора по элементу
+     * @return ответ со списком элементов
+     */
+    public static <T> ResponseEntity<List<T>> page(List<T> content, int size, Function<T, KeysetCursor> cursorOf) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (size > 0 && content.size() >= size) {
+            builder.header(NEXT_CURSOR_HEADER, cursorOf.apply(content.get(content.size() - 1)).encode());
+        }
+        return builder.body(content);
+    }
+
+    /**
+     * кодирование курсора в непрозрачную для клиента строку
+     *
+     * @return строковое представление курсора
+     */
+    public String encode() {
+        String value = position == null ? String.valueOf(id) : position + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getPosition() {
+        return position;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * позиция курсора с проверкой её наличия
+     *
+     * @return позиция курсора
+     */
+    public LocalDateTime requirePosition() {
+        if (position == null) {
+            throw new CursorValidateException(encode());
+        }
+        return position;
+    }
+}
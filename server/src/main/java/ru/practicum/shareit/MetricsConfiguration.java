@@ -0,0 +1,59 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.aop.framework.AbstractAdvisingBeanPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.stereotype.Service;
+
+/**
+ * метрики горячего пути: время методов сервисов (shareit.service) и число SQL-запросов на HTTP-запрос
+ * (shareit.http.sql.statements); время вызовов репозиториев публикует Spring Boot
+ * (spring.data.repository.invocations), гистограммы включены в application.properties,
+ * всё доступно в /actuator/prometheus
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    /**
+     * таймер вокруг каждого метода классов с аннотацией @Service; совет ставится перед транзакционным,
+     * поэтому время включает открытие и фиксацию транзакции
+     *
+     * @param registry реестр метрик (получается при первом вызове сервиса)
+     * @return обработчик бинов, добавляющий совет
+     */
+    @Bean
+    public static AbstractAdvisingBeanPostProcessor serviceMetricsPostProcessor(
+            ObjectProvider<MeterRegistry> registry) {
+        AbstractAdvisingBeanPostProcessor postProcessor = new AbstractAdvisingBeanPostProcessor() {
+            {
+                advisor = new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(Service.class, true),
+                        new ServiceMetricsInterceptor(registry::getObject));
+                beforeExistingAdvisors = true;
+            }
+        };
+        postProcessor.setProxyTargetClass(true);
+        return postProcessor;
+    }
+
+    @Bean
+    public SqlStatementMetricsFilter sqlStatementMetricsFilter(ObjectProvider<MeterRegistry> registry) {
+        return new SqlStatementMetricsFilter(registry::getObject);
+    }
+
+    /**
+     * подключение счётчика SQL-запросов к Hibernate, если инспектор не задан в свойствах явно
+     *
+     * @param filter счётчик SQL-запросов
+     * @return настройка свойств Hibernate
+     */
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementInspectorCustomizer(SqlStatementMetricsFilter filter) {
+        return properties -> properties.putIfAbsent(AvailableSettings.STATEMENT_INSPECTOR, filter);
+    }
+}
@@ -0,0 +1,52 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * запись объектов в тело ответа в формате NDJSON (по объекту на строку): объект сериализуется сразу при получении,
+ * а поток ответа не сбрасывается после каждого объекта, поэтому данные уходят клиенту по мере заполнения буфера
+ * ответа; поток ответа открывается при записи первого объекта, чтобы ошибка до начала выгрузки (например,
+ * неизвестный пользователь) ещё могла вернуть свой статус
+ */
+public class NdjsonWriter implements Consumer<Object>, Closeable {
+    private final ObjectWriter writer;
+    private final HttpServletResponse response;
+    private JsonGenerator generator;
+
+    public NdjsonWriter(ObjectMapper mapper, HttpServletResponse response) {
+        this.writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.response = response;
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+    }
+
+    @Override
+    public void accept(Object value) {
+        try {
+            if (generator == null) {
+                generator = writer.createGenerator(response.getOutputStream())
+                        .setRootValueSeparator(null);
+            }
+            writer.writeValue(generator, value);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (generator != null) {
+            generator.close();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * генератор id из последовательности БД с оптимизатором pooled-lo: одно обращение к последовательности выделяет
+ * блок из shareit.id.allocation-size id, поэтому вставки не ждут БД за каждым id и объединяются в пакеты JDBC
+ * (шаг последовательности в миграциях задаётся тем же свойством; в профиле test блок из одного id, чтобы после
+ * перезапуска последовательности в тестах id снова начинались с 1)
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+    public static final String ALLOCATION_SIZE = "shareit.id.allocation_size";
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        Object allocationSize = serviceRegistry.getService(ConfigurationService.class).getSettings()
+                .get(ALLOCATION_SIZE);
+        Properties pooled = new Properties();
+        pooled.putAll(params);
+        pooled.setProperty(INCREMENT_PARAM, allocationSize != null
+                ? allocationSize.toString() : String.valueOf(DEFAULT_INCREMENT_SIZE));
+        pooled.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, pooled, serviceRegistry);
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.Map;
+
+/**
+ * /actuator/queries: повторяющиеся (N+1) и медленные запросы к БД с методами контроллеров, из которых они выполнены
+ * (только чтение: накопленное ограничено shareit.queries.max-entries и сбрасывается перезапуском)
+ */
+@Endpoint(id = "queries")
+public class QueriesEndpoint {
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final QueryInspector inspector;
+
+    public QueriesEndpoint(QueryInspector inspector) {
+        this.inspector = inspector;
+    }
+
+    /**
+     * худшие запросы
+     *
+     * @param limit число записей каждого вида (по умолчанию 20)
+     * @return отчёт инспектора запросов
+     */
+    @ReadOperation
+    public Map<String, Object> report(@Nullable Integer limit) {
+        return inspector.report(limit != null ? limit : DEFAULT_LIMIT);
+    }
+}
@@ -0,0 +1,204 @@
+package ru.practicum.shareit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * инспектор SQL-запросов: по счётчику {@link SqlStatementMetricsFilter} отмечает одинаковые подготовленные запросы
+ * (отличаются только параметрами), повторённые за HTTP-запрос не меньше repeatThreshold раз, как N+1, а запросы
+ * дольше slowThreshold - как медленные; обе находки пишутся в лог в виде ключ=значение и накапливаются
+ * по паре метод контроллера - текст запроса (не больше maxEntries пар каждого вида) для /actuator/queries
+ */
+@Slf4j
+public class QueryInspector implements HandlerInterceptor {
+    static final String NO_HANDLER = "none";
+
+    private final ThreadLocal<String> current = new ThreadLocal<>();
+    private final SqlStatementMetricsFilter statements;
+    private final ConcurrentMap<String, Offender> repeated = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Offender> slow = new ConcurrentHashMap<>();
+    private final long slowThresholdNanos;
+    private final int repeatThreshold;
+    private final int maxEntries;
+
+    public QueryInspector(SqlStatementMetricsFilter statements, Duration slowThreshold, int repeatThreshold,
+                          int maxEntries) {
+        this.statements = statements;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.repeatThreshold = repeatThreshold;
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            HandlerMethod method = (HandlerMethod) handler;
+            begin(method.getBeanType().getSimpleName() + "." + method.getMethod().getName());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                @Nullable Exception ex) {
+        end();
+    }
+
+    /**
+     * связывание запросов к БД в текущем потоке с методом контроллера
+     *
+     * @param handler метод контроллера, обрабатывающий HTTP-запрос
+     */
+    void begin(String handler) {
+        current.set(handler);
+    }
+
+    /**
+     * окончание HTTP-запроса: запросы, выполненные не меньше repeatThreshold раз, отмечаются как N+1
+     */
+    void end() {
+        String handler = current.get();
+        if (handler == null) {
+            return;
+        }
+        current.remove();
+        Map<String, int[]> executions = statements.currentStatements();
+        int total = SqlStatementMetricsFilter.total(executions);
+        executions.forEach((sql, count) -> {
+            if (count[0] >= repeatThreshold) {
+                String statement = normalize(sql);
+                log.warn("query.repeated handler={} executions={} statements={} statement=\"{}\"", handler,
+                        count[0], total, statement);
+                record(repeated, handler, statement, count[0]);
+            }
+        });
+    }
+
+    /**
+     * проверка времени выполненного запроса
+     *
+     * @param sql   текст запроса с параметрами в виде ?
+     * @param nanos время выполнения
+     */
+    void executed(String sql, long nanos) {
+        if (nanos >= slowThresholdNanos) {
+            String handler = current.get();
+            if (handler == null) {
+                handler = NO_HANDLER;
+            }
+            String statement = normalize(sql);
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            log.warn("query.slow handler={} durationMs={} statement=\"{}\"", handler, millis, statement);
+            record(slow, handler, statement, millis);
+        }
+    }
+
+    /**
+     * отчёт о худших запросах
+     *
+     * @param limit число записей каждого вида
+     * @return отчёт: пороги, повторяющиеся запросы по числу HTTP-запросов с повторами и медленные запросы
+     * по наибольшему времени
+     */
+    public Map<String, Object> report(int limit) {
+        Map<String, Object> report = new HashMap<>();
+        report.put("slowThresholdMs", TimeUnit.NANOSECONDS.toMillis(slowThresholdNanos));
+        report.put("repeatThreshold", repeatThreshold);
+        report.put("repeated", top(repeated, Offender::getOccurrences, limit));
+        report.put("slow", top(slow, Offender::getMax, limit));
+        return report;
+    }
+
+    /**
+     * сброс накопленных записей (для тестов)
+     */
+    void reset() {
+        repeated.clear();
+        slow.clear();
+    }
+
+    private void record(ConcurrentMap<String, Offender> offenders, String handler, String statement, long value) {
+        String key = handler + '\n' + statement;
+        Offender offender = offenders.get(key);
+        if (offender == null) {
+            if (offenders.size() >= maxEntries) {
+                return;
+            }
+            offender = offenders.computeIfAbsent(key, k -> new Offender(handler, statement));
+        }
+        offender.record(value);
+    }
+
+    private static List<Offender> top(ConcurrentMap<String, Offender> offenders, ToLongFunction<Offender> order,
+                                      int limit) {
+        return offenders.values().stream()
+                .sorted(Comparator.comparingLong(order).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private static String normalize(String sql) {
+        return sql.replaceAll("\\s+", " ").trim();
+    }
+
+    /**
+     * запрос, отмеченный инспектором: для повторяющихся occurrences - число HTTP-запросов с повторами,
+     * max и total - выполнения запроса в одном HTTP-запросе; для медленных occurrences - число медленных
+     * выполнений, max и total - время в миллисекундах
+     */
+    public static class Offender {
+        private final String handler;
+        private final String statement;
+        private final LongAdder occurrences = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+        private final LongAdder total = new LongAdder();
+
+        private Offender(String handler, String statement) {
+            this.handler = handler;
+            this.statement = statement;
+        }
+
+        private void record(long value) {
+            occurrences.increment();
+            max.accumulate(value);
+            total.add(value);
+        }
+
+        public String getHandler() {
+            return handler;
+        }
+
+        public String getStatement() {
+            return statement;
+        }
+
+        public long getOccurrences() {
+            return occurrences.sum();
+        }
+
+        public long getMax() {
+            return max.get();
+        }
+
+        public long getTotal() {
+            return total.sum();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.shareit;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * инспектор запросов к БД (shareit.queries.enabled, по умолчанию включён): повторы считаются по счётчику
+ * SQL-запросов метрик, время каждого запроса снимается на обёртке источника данных, HTTP-запрос связывается
+ * с методом контроллера через перехватчик Spring MVC, находки доступны в /actuator/queries
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.queries.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryInspectorConfiguration {
+
+    /**
+     * инспектор запросов
+     *
+     * @param statements      счётчик SQL-запросов HTTP-запроса
+     * @param slowThreshold   время, начиная с которого запрос считается медленным
+     * @param repeatThreshold число выполнений одного запроса за HTTP-запрос, начиная с которого он считается N+1
+     * @param maxEntries      наибольшее число накапливаемых записей каждого вида
+     * @return инспектор
+     */
+    @Bean
+    public QueryInspector queryInspector(SqlStatementMetricsFilter statements,
+                                         @Value("${shareit.queries.slow-threshold:200ms}") Duration slowThreshold,
+                                         @Value("${shareit.queries.repeat-threshold:5}") int repeatThreshold,
+                                         @Value("${shareit.queries.max-entries:1000}") int maxEntries) {
+        return new QueryInspector(statements, slowThreshold, repeatThreshold, maxEntries);
+    }
+
+    /**
+     * обёртка источника данных, передающая инспектору каждый выполненный запрос
+     *
+     * @param inspector инспектор запросов (получается при обёртывании)
+     * @return обработчик бинов
+     */
+    @Bean
+    public static BeanPostProcessor queryInspectorPostProcessor(ObjectProvider<QueryInspector> inspector) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof DataSource && !(bean instanceof QueryInspectorDataSource)) {
+                    return new QueryInspectorDataSource((DataSource) bean, inspector.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public WebMvcConfigurer queryInspectorInterceptor(QueryInspector inspector) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(inspector);
+            }
+        };
+    }
+
+    @Bean
+    public QueriesEndpoint queriesEndpoint(QueryInspector inspector) {
+        return new QueriesEndpoint(inspector);
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.util.function.SingletonSupplier;
+import ru.practicum.shareit.booking.model.BookingState;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * таймер shareit.service вокруг методов сервисов с тегами service (класс сервиса), method, state (вариант выборки
+ * бронирований из аргументов или none), outcome (SUCCESS или ERROR) и exception (класс исключения или none)
+ */
+class ServiceMetricsInterceptor implements MethodInterceptor {
+    static final String METRIC = "shareit.service";
+    private static final String NONE = "none";
+
+    private final Supplier<MeterRegistry> registry;
+
+    ServiceMetricsInterceptor(Supplier<MeterRegistry> registry) {
+        this.registry = SingletonSupplier.of(registry);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        long started = System.nanoTime();
+        String exception = NONE;
+        try {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            Timer.builder(METRIC)
+                    .description("время выполнения методов сервисов")
+                    .tag("service", AopUtils.getTargetClass(invocation.getThis()).getSimpleName())
+                    .tag("method", invocation.getMethod().getName())
+                    .tag("state", state(invocation.getArguments()))
+                    .tag("outcome", exception.equals(NONE) ? "SUCCESS" : "ERROR")
+                    .tag("exception", exception)
+                    .register(registry.get())
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static String state(Object[] arguments) {
+        for (Object argument : arguments) {
+            if (argument instanceof BookingState) {
+                return ((BookingState) argument).name();
+            }
+        }
+        return NONE;
+    }
+}
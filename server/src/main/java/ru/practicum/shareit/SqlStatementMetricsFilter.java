@@ -0,0 +1,83 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.util.function.SingletonSupplier;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * число SQL-запросов на один HTTP-запрос (shareit.http.sql.statements с тегами method, uri и status):
+ * Hibernate передаёт каждый подготавливаемый запрос в inspect, счётчик текущего HTTP-запроса хранится в потоке
+ * его обработки; запросы к actuator не учитываются; реестр метрик получается при первом запросе, чтобы подключение
+ * к Hibernate не создавало его во время инициализации JPA; выполнения по тексту запроса читает {@link QueryInspector}
+ */
+public class SqlStatementMetricsFilter extends OncePerRequestFilter implements StatementInspector {
+    static final String METRIC = "shareit.http.sql.statements";
+
+    private final ThreadLocal<Map<String, int[]>> statements = new ThreadLocal<>();
+    private final Supplier<MeterRegistry> registry;
+
+    public SqlStatementMetricsFilter(Supplier<MeterRegistry> registry) {
+        this.registry = SingletonSupplier.of(registry);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Map<String, int[]> executions = statements.get();
+        if (executions != null) {
+            executions.computeIfAbsent(sql, key -> new int[1])[0]++;
+        }
+        return sql;
+    }
+
+    /**
+     * запросы текущего HTTP-запроса
+     *
+     * @return число выполнений по тексту запроса или пустой словарь вне HTTP-запроса
+     */
+    Map<String, int[]> currentStatements() {
+        Map<String, int[]> executions = statements.get();
+        return executions != null ? executions : Map.of();
+    }
+
+    static int total(Map<String, int[]> executions) {
+        return executions.values().stream().mapToInt(count -> count[0]).sum();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Map<String, int[]> executions = new HashMap<>();
+        statements.set(executions);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            statements.remove();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder(METRIC)
+                    .description("число SQL-запросов на один HTTP-запрос")
+                    .baseUnit("statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                    .tag("status", String.valueOf(response.getStatus()))
+                    .register(registry.get())
+                    .record(total(executions));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package ru.practicum.shareit;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * режим виртуальных потоков (shareit.threads.virtual=true, при запуске нужен JDK 21): запросы обрабатываются
+ * Tomcat на виртуальных потоках, а получение соединения с БД ограничено семафором по размеру пула Hikari
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.threads.virtual", havingValue = "true")
+public class VirtualThreadsConfiguration {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer()
+            throws ReflectiveOperationException {
+        Executor executor = (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    /**
+     * ограничение числа одновременно выданных соединений с БД размером пула
+     *
+     * @param maxPoolSize       размер пула соединений
+     * @param connectionTimeout время ожидания соединения
+     * @return обёртка источника данных
+     */
+    @Bean
+    public static BeanPostProcessor connectionPermitPostProcessor(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maxPoolSize,
+            @Value("${spring.datasource.hikari.connection-timeout:30s}") Duration connectionTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof DataSource && !(bean instanceof ConnectionPermitDataSource)) {
+                    return new ConnectionPermitDataSource((DataSource) bean, maxPoolSize, connectionTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+}
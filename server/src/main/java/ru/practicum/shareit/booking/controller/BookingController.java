@@ -1,13 +1,21 @@
 package ru.practicum.shareit.booking.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.NdjsonWriter;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreatingBookingDto;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.service.BookingService;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -19,9 +27,12 @@ import java.util.List;
 public class BookingController {
     private final BookingService service;
 
+    private final ObjectMapper objectMapper;
+
     @Autowired
-    public BookingController(BookingService service) {
+    public BookingController(BookingService service, ObjectMapper objectMapper) {
         this.service = service;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -52,6 +63,20 @@ public class BookingController {
         return service.approve(userId, approved, bookingId);
     }
 
+    /**
+     * изменение статуса набора бронирований
+     *
+     * @param userId     id пользователя
+     * @param approved   статус бронирований
+     * @param bookingIds id бронирований
+     * @return результат по каждому бронированию: новый статус или сообщение об ошибке
+     */
+    @PatchMapping
+    public List<BookingApprovalDto> approveAll(@RequestHeader("X-Sharer-User-Id") long userId,
+                                               @RequestParam Boolean approved, @RequestBody List<Long> bookingIds) {
+        return service.approveAll(userId, approved, bookingIds);
+    }
+
     /**
      * возвращение бронирования по id
      *
@@ -69,17 +94,20 @@ public class BookingController {
      *
      * @param userId id пользователя
      * @param state  вариант выборки (ALL, CURRENT, PAST, FUTURE, WAITING, REJECTED)
-     * @param from   - начальный элемент
+     * @param from   - начальный элемент (используется, если курсор не передан)
      * @param size   - размер выборки
+     * @param cursor - курсор из заголовка X-Next-Cursor предыдущей страницы
      * @return список dto бъектов бронирования
      */
     @GetMapping
-    public List<BookingDto> findAllByUser(@RequestHeader("X-Sharer-User-Id") long userId,
-                                          @RequestParam(defaultValue = "all") BookingState state,
-                                          @RequestParam(defaultValue = "0") Integer from,
-                                          @RequestParam(defaultValue = "20") Integer size) {
+    public ResponseEntity<List<BookingDto>> findAllByUser(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                          @RequestParam(defaultValue = "all") BookingState state,
+                                                          @RequestParam(defaultValue = "0") Integer from,
+                                                          @RequestParam(defaultValue = "20") Integer size,
+                                                          @RequestParam(required = false) String cursor) {
 
-        return service.findAllByUser(userId, state, from, size);
+        List<BookingDto> list = service.findAllByUser(userId, state, from, size, KeysetCursor.decode(cursor));
+        return KeysetCursor.page(list, size, b -> KeysetCursor.of(b.getStart(), b.getId()));
     }
 
     /**
@@ -87,18 +115,53 @@ public class BookingController {
      *
      * @param ownerId id владельца вещи
      * @param state   вариант выборки (ALL, CURRENT, PAST, FUTURE, WAITING, REJECTED)
-     * @param from    - начальный элемент
+     * @param from    - начальный элемент (используется, если курсор не передан)
      * @param size    - размер выборки
+     * @param cursor  - курсор из заголовка X-Next-Cursor предыдущей страницы
      * @return список dto бъектов бронирования
      */
     @GetMapping("/owner")
-    public List<BookingDto> findAllByOwner(@RequestHeader("X-Sharer-User-Id") long ownerId,
-                                           @RequestParam(defaultValue = "all") BookingState state,
-                                           @RequestParam(defaultValue = "0") Integer from,
-                                           @RequestParam(defaultValue = "20") Integer size) {
+    public ResponseEntity<List<BookingDto>> findAllByOwner(@RequestHeader("X-Sharer-User-Id") long ownerId,
+                                                           @RequestParam(defaultValue = "all") BookingState state,
+                                                           @RequestParam(defaultValue = "0") Integer from,
+                                                           @RequestParam(defaultValue = "20") Integer size,
+                                                           @RequestParam(required = false) String cursor) {
+
+        log.info("Get booking with state {}, userId={}, from={}, size={}, cursor={}", state, ownerId, from, size,
+                cursor);
+        List<BookingDto> list = service.findAllByOwner(ownerId, state, from, size, KeysetCursor.decode(cursor));
+        return KeysetCursor.page(list, size, b -> KeysetCursor.of(b.getStart(), b.getId()));
+    }
 
-        log.info("Get booking with state {}, userId={}, from={}, size={}", state, ownerId, from, size);
-        return service.findAllByOwner(ownerId, state, from, size);
+    /**
+     * выгрузка всех бронирований пользователя потоком NDJSON
+     *
+     * @param userId   id пользователя
+     * @param state    вариант выборки (ALL, CURRENT, PAST, FUTURE, WAITING, REJECTED)
+     * @param response ответ, в тело которого пишутся dto объекты бронирований по одному на строку
+     */
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportAllByUser(@RequestHeader("X-Sharer-User-Id") long userId,
+                                @RequestParam(defaultValue = "ALL") BookingState state,
+                                HttpServletResponse response) throws IOException {
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, response)) {
+            service.exportAllByUser(userId, state, writer::accept);
+        }
     }
 
+    /**
+     * выгрузка всех бронирований вещей владельца потоком NDJSON
+     *
+     * @param ownerId  id владельца вещей
+     * @param state    вариант выборки (ALL, CURRENT, PAST, FUTURE, WAITING, REJECTED)
+     * @param response ответ, в тело которого пишутся dto объекты бронирований по одному на строку
+     */
+    @GetMapping(path = "/owner/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportAllByOwner(@RequestHeader("X-Sharer-User-Id") long ownerId,
+                                 @RequestParam(defaultValue = "ALL") BookingState state,
+                                 HttpServletResponse response) throws IOException {
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, response)) {
+            service.exportAllByOwner(ownerId, state, writer::accept);
+        }
+    }
 }
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+/**
+ * dto класс результата изменения статуса одного бронирования из набора: статус после обработки
+ * (null, если бронирование не найдено) и сообщение об ошибке (null, если статус изменён)
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class BookingApprovalDto {
+    private long bookingId;
+    private BookingStatus status;
+    private String error;
+}
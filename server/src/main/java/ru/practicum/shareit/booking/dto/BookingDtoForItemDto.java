@@ -1,5 +1,6 @@
 package ru.practicum.shareit.booking.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import ru.practicum.shareit.booking.model.BookingStatus;
@@ -11,6 +12,7 @@ import java.time.LocalDateTime;
  */
 @Data
 @Builder
+@AllArgsConstructor
 public class BookingDtoForItemDto {
     private long id;
     private LocalDateTime start;
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * dto класс бронирования для выгрузки: плоская строка без вложенных вещи и автора
+ * (читается проекцией, сущности в контекст персистентности не попадают)
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingExportDto {
+    private long id;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private BookingStatus status;
+    private long itemId;
+    private String itemName;
+    private long bookerId;
+}
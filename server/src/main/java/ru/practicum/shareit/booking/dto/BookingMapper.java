@@ -5,9 +5,9 @@ import org.springframework.stereotype.Component;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.dto.ItemMapper;
-import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.dto.UserMapper;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.model.User;
 
 /**
  * маппер бронирований
@@ -15,14 +15,10 @@ import ru.practicum.shareit.user.repository.UserRepository;
 @Component
 public class BookingMapper {
 
-    private final ItemRepository itemRepository;
-    private final UserRepository userRepository;
     private final ItemMapper itemMapper;
 
     @Autowired
-    public BookingMapper(ItemRepository itemRepository, UserRepository userRepository, ItemMapper itemMapper) {
-        this.itemRepository = itemRepository;
-        this.userRepository = userRepository;
+    public BookingMapper(ItemMapper itemMapper) {
         this.itemMapper = itemMapper;
     }
 
@@ -30,14 +26,16 @@ public class BookingMapper {
      * создание объекта бронирования из dto объкта создания бронирования
      *
      * @param bookingDto dto объект создания бронирования
+     * @param item       бронируемая вещь
+     * @param booker     автор бронирования
      * @return объект бронирования
      */
-    public Booking toBooking(CreatingBookingDto bookingDto) {
+    public Booking toBooking(CreatingBookingDto bookingDto, Item item, User booker) {
         return Booking.builder()
                 .start(bookingDto.getStart())
                 .end(bookingDto.getEnd())
-                .item(itemRepository.findById(bookingDto.getItemId()).get())
-                .booker(userRepository.findById(bookingDto.getBooker()).get())
+                .item(item)
+                .booker(booker)
                 .status(BookingStatus.WAITING)
                 .build();
     }
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+/**
+ * dto класс бронирования для проверки перед изменением статуса: владелец вещи и текущий статус
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class BookingOwnershipDto {
+    private long id;
+    private long ownerId;
+    private BookingStatus status;
+}
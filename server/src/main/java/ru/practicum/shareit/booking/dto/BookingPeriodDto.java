@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * dto класс периода занятости вещи
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class BookingPeriodDto {
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * dto класс доступности вещи для бронирования на заданный период
+ */
+@Data
+@Builder
+public class ItemAvailabilityDto {
+    private long itemId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private boolean available;
+    private LocalDateTime nextFreeStart;
+    private List<BookingPeriodDto> busy;
+}
@@ -3,6 +3,11 @@ package ru.practicum.shareit.booking.model;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
@@ -11,25 +16,38 @@ import java.time.LocalDateTime;
 
 /**
  * класс объекта бронирования
+ * (связи загружаются лениво; граф Booking.view подгружает вещь и автора бронирования, нужные для dto;
+ * id выделяются блоками из последовательности bookings_seq, см. {@link ru.practicum.shareit.PooledSequenceGenerator})
  */
 @Data
 @Entity
 @Table(name = "bookings")
+@NamedEntityGraph(name = Booking.VIEW_GRAPH, attributeNodes = {
+        @NamedAttributeNode("item"),
+        @NamedAttributeNode("booker")
+})
 @AllArgsConstructor
 @Builder
 public class Booking {
+    public static final String VIEW_GRAPH = "Booking.view";
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "bookings_seq")
+    @GenericGenerator(name = "bookings_seq", strategy = "ru.practicum.shareit.PooledSequenceGenerator",
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "bookings_seq"))
     private long id;
     @Column(name = "start_date")
     private LocalDateTime start;
     @Column(name = "end_date")
     private LocalDateTime end;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Item item;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booker_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User booker;
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
@@ -1,48 +1,122 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.dto.BookingDtoForItemDto;
+import ru.practicum.shareit.booking.dto.BookingOwnershipDto;
+import ru.practicum.shareit.booking.dto.BookingPeriodDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * интерфейс репозитория бронирований
+ * (условия по пользователю и вещи записаны через внешние ключи b.booker.id и b.item.id, чтобы выборка шла
+ * по индексам таблицы bookings без лишнего соединения с users)
  */
-public interface BookingRepository extends CrudRepository<Booking, Long> {
+public interface BookingRepository extends CrudRepository<Booking, Long>, BookingRepositoryCustom {
 
-    List<Booking> findAllByBookerIdAndEndBeforeOrderByStartDesc(long userId, LocalDateTime end);
+    @Override
+    @EntityGraph(Booking.VIEW_GRAPH)
+    Optional<Booking> findById(Long id);
 
-    Page<Booking> findAllByBookerIdOrderByStartDesc(long userId, Pageable pageable);
-
-    Page<Booking> findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(long userId, LocalDateTime start,
-                                                                             LocalDateTime end, Pageable pageable);
-
-    Page<Booking> findAllByBookerIdAndEndBeforeOrderByStartDesc(long userId, LocalDateTime end, Pageable pageable);
-
-    Page<Booking> findAllByBookerIdAndStartAfterOrderByStartDesc(long userId, LocalDateTime start, Pageable pageable);
-
-    Page<Booking> findAllByBookerIdAndStatusOrderByStartDesc(long userId, BookingStatus status, Pageable pageable);
+    /**
+     * проверка завершённого бронирования вещи пользователем с заданным статусом по индексу
+     * idx_bookings_booker_item; положительный ответ кэшируется по паре (пользователь, вещь), поэтому метод
+     * вызывается только со статусом APPROVED: такое бронирование уже не изменится
+     *
+     * @param userId id автора бронирования
+     * @param itemId id вещи
+     * @param status статус бронирования
+     * @param end    момент, до которого бронирование должно закончиться
+     * @return true, если такое бронирование есть
+     */
+    @Cacheable(cacheNames = "commenters", key = "#p0 + ':' + #p1", unless = "!#result")
+    boolean existsByBookerIdAndItemIdAndStatusAndEndBefore(long userId, long itemId, BookingStatus status,
+                                                          LocalDateTime end);
 
-    Page<Booking> findAllByItemOwnerIdOrderByStartDesc(long userId, Pageable pageable);
+    /**
+     * поиск последних начавшихся бронирований для набора вещей одним запросом
+     *
+     * @param itemIds id вещей
+     * @param now     текущий момент времени
+     * @return по одному бронированию на вещь (с самой поздней датой начала до текущего момента)
+     */
+    @Query("select new ru.practicum.shareit.booking.dto.BookingDtoForItemDto(b.id, b.start, b.end, b.item.id, " +
+            "b.booker.id, b.status) from Booking as b " +
+            "where b.item.id in :itemIds and b.start = (select max(lb.start) from Booking as lb " +
+            "where lb.item.id = b.item.id and lb.start < :now)")
+    List<BookingDtoForItemDto> findLastByItemIds(@Param("itemIds") Collection<Long> itemIds,
+                                                 @Param("now") LocalDateTime now);
 
-    Page<Booking> findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(long userId, LocalDateTime start,
-                                                                                LocalDateTime end, Pageable pageable);
+    /**
+     * поиск ближайших будущих бронирований для набора вещей одним запросом
+     *
+     * @param itemIds id вещей
+     * @param now     текущий момент времени
+     * @return по одному бронированию на вещь (с самой ранней датой начала после текущего момента)
+     */
+    @Query("select new ru.practicum.shareit.booking.dto.BookingDtoForItemDto(b.id, b.start, b.end, b.item.id, " +
+            "b.booker.id, b.status) from Booking as b " +
+            "where b.item.id in :itemIds and b.start = (select min(nb.start) from Booking as nb " +
+            "where nb.item.id = b.item.id and nb.start > :now)")
+    List<BookingDtoForItemDto> findNextByItemIds(@Param("itemIds") Collection<Long> itemIds,
+                                                 @Param("now") LocalDateTime now);
 
-    Page<Booking> findAllByItemOwnerIdAndEndBeforeOrderByStartDesc(long userId, LocalDateTime end, Pageable pageable);
+    /**
+     * проверка наличия бронирований вещи, пересекающихся с периодом
+     *
+     * @param itemId   id вещи
+     * @param statuses учитываемые статусы бронирований
+     * @param end      окончание периода
+     * @param start    начало периода
+     * @return true, если есть бронирование с началом до окончания периода и окончанием после его начала
+     */
+    @Query("select case when count(b) > 0 then true else false end from Booking as b " +
+            "where b.item.id = ?1 and b.status in ?2 and b.start < ?3 and b.end > ?4")
+    boolean existsByItemIdAndStatusInAndStartBeforeAndEndAfter(long itemId, Collection<BookingStatus> statuses,
+                                                               LocalDateTime end, LocalDateTime start);
 
-    Page<Booking> findAllByItemOwnerIdAndStartAfterOrderByStartDesc(long userId, LocalDateTime start, Pageable pageable);
+    /**
+     * поиск периодов занятости вещи, заканчивающихся после заданного момента
+     *
+     * @param itemId   id вещи
+     * @param statuses учитываемые статусы бронирований
+     * @param from     момент времени
+     * @return список периодов, упорядоченный по дате начала
+     */
+    @Query("select new ru.practicum.shareit.booking.dto.BookingPeriodDto(b.start, b.end) from Booking as b " +
+            "where b.item.id = ?1 and b.status in ?2 and b.end > ?3 order by b.start")
+    List<BookingPeriodDto> findPeriodsByItemId(long itemId, Collection<BookingStatus> statuses, LocalDateTime from);
 
-    Page<Booking> findAllByItemOwnerIdAndStatusOrderByStartDesc(long userId, BookingStatus status, Pageable pageable);
+    /**
+     * поиск владельцев вещей и статусов набора бронирований одним запросом (без соединения с users)
+     *
+     * @param ids id бронирований
+     * @return найденные бронирования
+     */
+    @Query("select new ru.practicum.shareit.booking.dto.BookingOwnershipDto(b.id, b.item.owner.id, b.status) " +
+            "from Booking as b where b.id in ?1")
+    List<BookingOwnershipDto> findOwnershipByIds(Collection<Long> ids);
 
     /**
-     * поиск по id вещи
+     * изменение статуса набора бронирований одним запросом; бронирования, статус которых уже изменён
+     * другим запросом, не обновляются
      *
-     * @param itemId id вещи
-     * @return список бронирований
+     * @param ids      id бронирований
+     * @param status   новый статус
+     * @param expected статус, который должен быть у бронирования
+     * @return число обновлённых бронирований
      */
-    List<Booking> findByItem_id(long itemId);
+    @Modifying
+    @Query("update Booking as b set b.status = ?2 where b.id in ?1 and b.status = ?3")
+    int updateStatus(Collection<Long> ids, BookingStatus status, BookingStatus expected);
 }
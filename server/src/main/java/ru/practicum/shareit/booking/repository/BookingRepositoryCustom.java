@@ -0,0 +1,58 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.booking.dto.BookingExportDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * дополнительные методы репозитория бронирований
+ */
+public interface BookingRepositoryCustom {
+    /**
+     * постраничная выборка бронирований по смещению в порядке убывания даты начала
+     * (одним запросом, без подсчёта общего количества)
+     *
+     * @param bookerId id автора бронирований или null
+     * @param ownerId  id владельца вещей или null
+     * @param state    вариант выборки
+     * @param now      текущий момент времени
+     * @param pageable смещение и размер выборки
+     * @return срез бронирований
+     */
+    Slice<Booking> findAll(Long bookerId, Long ownerId, BookingState state, LocalDateTime now, Pageable pageable);
+
+    /**
+     * постраничная выборка бронирований по ключу (start, id) в порядке убывания
+     *
+     * @param bookerId id автора бронирований или null
+     * @param ownerId  id владельца вещей или null
+     * @param state    вариант выборки
+     * @param now      текущий момент времени
+     * @param cursor   курсор последнего полученного бронирования
+     * @param limit    размер выборки
+     * @return список бронирований после курсора
+     */
+    List<Booking> findAllAfter(Long bookerId, Long ownerId, BookingState state, LocalDateTime now,
+                               KeysetCursor cursor, int limit);
+
+    /**
+     * выборка всех бронирований для выгрузки в порядке убывания даты начала: строки читаются курсором БД
+     * порциями по fetchSize (поток нужно закрыть, вызывать внутри транзакции)
+     *
+     * @param bookerId  id автора бронирований или null
+     * @param ownerId   id владельца вещей или null
+     * @param state     вариант выборки
+     * @param now       текущий момент времени
+     * @param fetchSize количество строк, получаемых от БД за одно обращение
+     * @return поток dto объектов бронирований
+     */
+    Stream<BookingExportDto> streamAll(Long bookerId, Long ownerId, BookingState state, LocalDateTime now,
+                                       int fetchSize);
+}
@@ -0,0 +1,149 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.booking.dto.BookingExportDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * реализация дополнительных методов репозитория бронирований
+ */
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<Booking> findAll(Long bookerId, Long ownerId, BookingState state, LocalDateTime now,
+                                  Pageable pageable) {
+        int size = pageable.getPageSize();
+        List<Booking> bookings = entityManager.createQuery(select(bookerId, ownerId, state, now, null))
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(size + 1)
+                .getResultList();
+        boolean hasNext = bookings.size() > size;
+        return new SliceImpl<>(hasNext ? bookings.subList(0, size) : bookings, pageable, hasNext);
+    }
+
+    @Override
+    public List<Booking> findAllAfter(Long bookerId, Long ownerId, BookingState state, LocalDateTime now,
+                                      KeysetCursor cursor, int limit) {
+        return entityManager.createQuery(select(bookerId, ownerId, state, now, cursor))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<BookingExportDto> streamAll(Long bookerId, Long ownerId, BookingState state, LocalDateTime now,
+                                              int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingExportDto> query = cb.createQuery(BookingExportDto.class);
+        Root<Booking> booking = query.from(Booking.class);
+        Join<Booking, Item> item = booking.join("item");
+        query.select(cb.construct(BookingExportDto.class, booking.get("id"), booking.get("start"),
+                        booking.get("end"), booking.get("status"), item.get("id"), item.get("name"),
+                        booking.get("booker").get("id")))
+                .where(where(cb, booking, item, bookerId, ownerId, state, now, null))
+                .orderBy(cb.desc(booking.get("start")), cb.desc(booking.get("id")));
+        return entityManager.createQuery(query)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream();
+    }
+
+    /**
+     * построение запроса выборки бронирований по роли пользователя и варианту выборки
+     * (вещь и автор бронирования загружаются тем же запросом, как в графе Booking.view)
+     *
+     * @param bookerId id автора бронирований или null
+     * @param ownerId  id владельца вещей или null
+     * @param state    вариант выборки
+     * @param now      текущий момент времени
+     * @param cursor   курсор последнего полученного бронирования или null
+     * @return запрос, упорядоченный по (start, id) в порядке убывания
+     */
+    @SuppressWarnings("unchecked")
+    private CriteriaQuery<Booking> select(Long bookerId, Long ownerId, BookingState state, LocalDateTime now,
+                                          KeysetCursor cursor) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Booking> query = cb.createQuery(Booking.class);
+        Root<Booking> booking = query.from(Booking.class);
+        Join<Booking, Item> item = (Join<Booking, Item>) booking.<Booking, Item>fetch("item");
+        booking.fetch("booker");
+        return query.select(booking)
+                .where(where(cb, booking, item, bookerId, ownerId, state, now, cursor))
+                .orderBy(cb.desc(booking.get("start")), cb.desc(booking.get("id")));
+    }
+
+    /**
+     * условия выборки бронирований по роли пользователя, варианту выборки и курсору
+     *
+     * @param cb       построитель запроса
+     * @param booking  корень запроса
+     * @param item     соединение с вещью бронирования
+     * @param bookerId id автора бронирований или null
+     * @param ownerId  id владельца вещей или null
+     * @param state    вариант выборки
+     * @param now      текущий момент времени
+     * @param cursor   курсор последнего полученного бронирования или null
+     * @return условия запроса
+     */
+    private static Predicate[] where(CriteriaBuilder cb, Root<Booking> booking, Join<Booking, Item> item,
+                                     Long bookerId, Long ownerId, BookingState state, LocalDateTime now,
+                                     KeysetCursor cursor) {
+        Path<LocalDateTime> start = booking.get("start");
+        Path<LocalDateTime> end = booking.get("end");
+        Path<Long> id = booking.get("id");
+        List<Predicate> predicates = new ArrayList<>();
+        if (bookerId != null) {
+            predicates.add(cb.equal(booking.get("booker").get("id"), bookerId));
+        }
+        if (ownerId != null) {
+            predicates.add(cb.equal(item.get("owner").get("id"), ownerId));
+        }
+        switch (state) {
+            case PAST:
+                predicates.add(cb.lessThan(end, now));
+                break;
+            case WAITING:
+                predicates.add(cb.equal(booking.get("status"), BookingStatus.WAITING));
+                break;
+            case REJECTED:
+                predicates.add(cb.equal(booking.get("status"), BookingStatus.REJECTED));
+                break;
+            case FUTURE:
+                predicates.add(cb.greaterThan(start, now));
+                break;
+            case CURRENT:
+                predicates.add(cb.lessThan(start, now));
+                predicates.add(cb.greaterThan(end, now));
+                break;
+            default:
+                break;
+        }
+        if (cursor != null) {
+            LocalDateTime position = cursor.requirePosition();
+            predicates.add(cb.lessThanOrEqualTo(start, position));
+            predicates.add(cb.or(cb.lessThan(start, position),
+                    cb.and(cb.equal(start, position), cb.lessThan(id, cursor.getId()))));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+}
@@ -1,11 +1,20 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoForItemDto;
+import ru.practicum.shareit.booking.dto.BookingExportDto;
 import ru.practicum.shareit.booking.dto.CreatingBookingDto;
+import ru.practicum.shareit.booking.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.booking.model.BookingState;
 
 import javax.validation.Valid;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 // интерфейс сервиса бронирований
 public interface BookingService {
@@ -28,6 +37,16 @@ public interface BookingService {
      */
     BookingDto approve(long userId, Boolean approved, long bookingId);
 
+    /**
+     * изменение статуса набора бронирований
+     *
+     * @param userId     id пользователя
+     * @param approved   статус бронирований
+     * @param bookingIds id бронирований
+     * @return результат по каждому бронированию (повторяющиеся id учитываются один раз)
+     */
+    List<BookingApprovalDto> approveAll(long userId, Boolean approved, Collection<Long> bookingIds);
+
     /**
      * возвращение бронирования по id
      *
@@ -46,6 +65,19 @@ public interface BookingService {
      */
     List<BookingDto> findAllByUser(long userId, BookingState state, Integer from, Integer size);
 
+    /**
+     * возвращение всех бронирований пользователя с постраничной выборкой по курсору
+     *
+     * @param userId id пользователя
+     * @param state  вариант выборки
+     * @param from   начальный элемент (используется, если курсор не передан)
+     * @param size   размер выборки
+     * @param cursor курсор последнего полученного бронирования или null
+     * @return список dto бъектов бронирования
+     */
+    List<BookingDto> findAllByUser(long userId, BookingState state, Integer from, Integer size,
+                                   KeysetCursor cursor);
+
     /**
      * возвращение всех бронирований владельца
      *
@@ -58,18 +90,71 @@ public interface BookingService {
     List<BookingDto> findAllByOwner(long ownerId, BookingState state, Integer from, Integer size);
 
     /**
-     * возвращение всех бронирований вещи
+     * возвращение всех бронирований владельца с постраничной выборкой по курсору
+     *
+     * @param ownerId id владельца вещи
+     * @param state   вариант выборки
+     * @param from    начальный элемент (используется, если курсор не передан)
+     * @param size    размер выборки
+     * @param cursor  курсор последнего полученного бронирования или null
+     * @return список dto бъектов бронирования
+     */
+    List<BookingDto> findAllByOwner(long ownerId, BookingState state, Integer from, Integer size,
+                                    KeysetCursor cursor);
+
+    /**
+     * выгрузка всех бронирований пользователя в порядке убывания даты начала: бронирования читаются курсором БД
+     * и передаются получателю по одному, без накопления списка
+     *
+     * @param userId   id пользователя
+     * @param state    вариант выборки
+     * @param consumer получатель dto объектов бронирований
+     */
+    void exportAllByUser(long userId, BookingState state, Consumer<BookingExportDto> consumer);
+
+    /**
+     * выгрузка всех бронирований вещей владельца в порядке убывания даты начала
+     *
+     * @param ownerId  id владельца вещей
+     * @param state    вариант выборки
+     * @param consumer получатель dto объектов бронирований
+     */
+    void exportAllByOwner(long ownerId, BookingState state, Consumer<BookingExportDto> consumer);
+
+    /**
+     * возвращение последних начавшихся бронирований для набора вещей
+     *
+     * @param itemIds id вещей
+     * @param now     текущий момент времени
+     * @return бронирования по id вещи
+     */
+    Map<Long, BookingDtoForItemDto> findLastByItemIds(Collection<Long> itemIds, LocalDateTime now);
+
+    /**
+     * возвращение ближайших будущих бронирований для набора вещей
+     *
+     * @param itemIds id вещей
+     * @param now     текущий момент времени
+     * @return бронирования по id вещи
+     */
+    Map<Long, BookingDtoForItemDto> findNextByItemIds(Collection<Long> itemIds, LocalDateTime now);
+
+    /**
+     * проверка доступности вещи для бронирования на период
      *
      * @param itemId id вещи
-     * @return список бронирований
+     * @param start  начало периода
+     * @param end    окончание периода
+     * @return доступность вещи, занятые периоды и ближайшее свободное время начала бронирования той же длительности
      */
-    List<BookingDto> findAllByItemId(long itemId);
+    ItemAvailabilityDto getAvailability(long itemId, LocalDateTime start, LocalDateTime end);
 
     /**
-     * возвращение завершённых бронирований пользователя
+     * проверка права пользователя оставить комментарий к вещи: завершённое подтверждённое бронирование
      *
      * @param userId id пользователя
-     * @return список бронирований
+     * @param itemId id вещи
+     * @return true, если пользователь брал вещь в аренду
      */
-    List<BookingDto> getPastByUser(Long userId);
+    boolean hasFinishedBooking(long userId, long itemId);
 }
@@ -2,26 +2,44 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.KeysetCursor;
 import ru.practicum.shareit.OffsetLimitPageable;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoForItemDto;
+import ru.practicum.shareit.booking.dto.BookingExportDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingOwnershipDto;
+import ru.practicum.shareit.booking.dto.BookingPeriodDto;
 import ru.practicum.shareit.booking.dto.CreatingBookingDto;
+import ru.practicum.shareit.booking.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.*;
-import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.dto.UserMapper;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.user.service.UserService;
 
 import javax.transaction.Transactional;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * класс реализации интерфеса сервиса бронирований
@@ -29,35 +47,57 @@ import java.util.stream.Collectors;
 @Service
 @Slf4j
 public class BookingServiceImpl implements BookingService {
+    /**
+     * статусы бронирований, занимающих вещь
+     */
+    private static final List<BookingStatus> ACTIVE_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+    /**
+     * количество строк выгрузки, получаемых от БД за одно обращение
+     */
+    private static final int EXPORT_FETCH_SIZE = 500;
 
     private final BookingRepository repository;
     private final UserService userService;
-    private final ItemService itemService;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
     private final BookingMapper mapper;
 
     @Autowired
-    public BookingServiceImpl(BookingRepository repository, UserService userService, ItemService itemService,
-                              BookingMapper mapper) {
+    public BookingServiceImpl(BookingRepository repository, UserService userService, UserRepository userRepository,
+                              ItemRepository itemRepository, BookingMapper mapper) {
         this.repository = repository;
         this.userService = userService;
-        this.itemService = itemService;
+        this.userRepository = userRepository;
+        this.itemRepository = itemRepository;
         this.mapper = mapper;
     }
 
+    /**
+     * создание бронирования: пользователь по первичному ключу (через кэш), вещь с блокировкой строки до конца
+     * транзакции, проверка пересечения по индексу, id из последовательности (один запрос на блок) и одна вставка;
+     * блокировка вещи не даёт одновременным бронированиям одного периода пройти проверку пересечения вместе
+     */
     @Override
     @Transactional
     public BookingDto create(long userId, CreatingBookingDto bookingDto) {
         validationEndDate(bookingDto);
-        userService.validateUserId(userId);
+        User booker = userRepository.findDtoById(userId).map(UserMapper::toUser).orElseThrow(() ->
+                new NotFoundException("User with id " + userId + " not found"));
         bookingDto.setBooker(userId);
-        if (itemService.getById(bookingDto.getItemId(), userId).getOwner() == userId) {
+        Item item = itemRepository.findByIdForUpdate(bookingDto.getItemId()).orElseThrow(() ->
+                new NotFoundException("Item with id " + bookingDto.getItemId() + " not found"));
+        if (item.getOwner().getId() == userId) {
             throw new NotFoundException("You cannot book your item");
         }
-        if (!itemService.getById(bookingDto.getItemId(), userId).getAvailable()) {
+        if (!item.getAvailable()) {
             throw new ItemUnavailableException();
         }
-        Booking booking = mapper.toBooking(bookingDto);
-        BookingDto returnedDto = mapper.toBookingDto(repository.save(repository.save(booking)));
+        if (repository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(bookingDto.getItemId(), ACTIVE_STATUSES,
+                bookingDto.getEnd(), bookingDto.getStart())) {
+            throw new BookingOverlapException();
+        }
+        Booking booking = mapper.toBooking(bookingDto, item, booker);
+        BookingDto returnedDto = mapper.toBookingDto(repository.save(booking));
         log.info("Booking with id {} has been created", returnedDto.getId());
         return returnedDto;
     }
@@ -84,6 +124,51 @@ public class BookingServiceImpl implements BookingService {
         return mapper.toBookingDto(booking);
     }
 
+    /**
+     * изменение статуса набора бронирований за три запроса: проверка пользователя, владельцы и статусы всех
+     * бронирований одним запросом и одно обновление подходящих; ошибка по отдельному бронированию не отменяет
+     * изменение остальных, а бронирование, на которое успел ответить другой запрос, отмечается как обработанное
+     */
+    @Override
+    @Transactional
+    public List<BookingApprovalDto> approveAll(long userId, Boolean approved, Collection<Long> bookingIds) {
+        userService.validateUserId(userId);
+        if (bookingIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        Set<Long> ids = new LinkedHashSet<>(bookingIds);
+        Map<Long, BookingOwnershipDto> bookings = repository.findOwnershipByIds(ids).stream()
+                .collect(Collectors.toMap(BookingOwnershipDto::getId, Function.identity()));
+        Map<Long, BookingApprovalDto> results = new LinkedHashMap<>();
+        for (Long id : ids) {
+            BookingOwnershipDto booking = bookings.get(id);
+            if (booking == null) {
+                results.put(id, failed(id, null, new NotFoundException("This booking not found")));
+            } else if (booking.getOwnerId() != userId) {
+                results.put(id, failed(id, booking.getStatus(), new OwnerValidationException()));
+            } else if (booking.getStatus() != BookingStatus.WAITING) {
+                results.put(id, failed(id, booking.getStatus(), new BookingApprovedException()));
+            } else {
+                results.put(id, new BookingApprovalDto(id, status, null));
+            }
+        }
+        List<Long> waiting = results.values().stream()
+                .filter(result -> result.getError() == null)
+                .map(BookingApprovalDto::getBookingId)
+                .collect(Collectors.toList());
+        if (!waiting.isEmpty() && repository.updateStatus(waiting, status, BookingStatus.WAITING) < waiting.size()) {
+            repository.findOwnershipByIds(waiting).stream()
+                    .filter(booking -> booking.getStatus() != status)
+                    .forEach(booking -> results.put(booking.getId(),
+                            failed(booking.getId(), booking.getStatus(), new BookingApprovedException())));
+        }
+        log.info("{} of {} bookings have been {} by user {}",
+                results.values().stream().filter(result -> result.getError() == null).count(), ids.size(),
+                approved ? "approved" : "rejected", userId);
+        return new ArrayList<>(results.values());
+    }
+
     @Override
     public BookingDto findById(long userId, long bookingId) {
         userService.validateUserId(userId);
@@ -105,48 +190,11 @@ public class BookingServiceImpl implements BookingService {
     @Override
     @Transactional
     public List<BookingDto> findAllByUser(long userId, BookingState state, Integer from, Integer size) {
-
         userService.validateUserId(userId);
-        Pageable pageable = OffsetLimitPageable.of(from, size, Sort.unsorted());
-        LocalDateTime now = LocalDateTime.now();
-        List<BookingDto> result = new ArrayList<>();
-        switch (state) {
-            case ALL:
-                result = repository.findAllByBookerIdOrderByStartDesc(userId, pageable).stream()
-                        .map(mapper::toBookingDto)
-                        .collect(Collectors.toList());
-                break;
-            case PAST:
-                result = repository.findAllByBookerIdAndEndBeforeOrderByStartDesc(userId, now, pageable).stream()
-                        .map(mapper::toBookingDto)
-                        .collect(Collectors.toList());
-                break;
-            case WAITING:
-                result = repository.findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.WAITING,
-                                pageable)
-                        .stream()
-                        .map(mapper::toBookingDto)
-                        .collect(Collectors.toList());
-                break;
-            case REJECTED:
-                result = repository.findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.REJECTED,
-                                pageable)
-                        .stream()
-                        .map(mapper::toBookingDto)
-                        .collect(Collectors.toList());
-                break;
-            case FUTURE:
-                result = repository.findAllByBookerIdAndStartAfterOrderByStartDesc(userId, now, pageable).stream()
-                        .map(mapper::toBookingDto)
-                        .collect(Collectors.toList());
-                break;
-            case CURRENT:
-                result = repository.findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(userId, now,
-                                now, pageable).stream()
-                        .map(mapper::toBookingDto)
-                        .collect(Collectors.toList());
-                break;
-        }
+        List<BookingDto> result = repository.findAll(userId, null, state, LocalDateTime.now(),
+                        OffsetLimitPageable.of(from, size)).stream()
+                .map(mapper::toBookingDto)
+                .collect(Collectors.toList());
         log.info(" All bookings for user with id {} and state {} has been returned", userId, state);
         return result;
     }
@@ -155,69 +203,124 @@ public class BookingServiceImpl implements BookingService {
     @Transactional
     public List<BookingDto> findAllByOwner(long ownerId, BookingState state, Integer from, Integer size) {
         userService.validateUserId(ownerId);
-        Pageable pageable = OffsetLimitPageable.of(from, size, Sort.unsorted());
-        LocalDateTime now = LocalDateTime.now();
-        List<BookingDto> result = new ArrayList<>();
-        switch (state) {
-            case ALL:
-                result = repository.findAllByItemOwnerIdOrderByStartDesc(ownerId, pageable).stream()
-                        .map(mapper::toBookingDto)
-                        .collect(Collectors.toList());
-                break;
-            case PAST:
-                result = repository.findAllByItemOwnerIdAndEndBeforeOrderByStartDesc(ownerId, now, pageable).stream()
-                        .map(mapper::toBookingDto)
-                        .collect(Collectors.toList());
-                break;
-            case WAITING:
-                result = repository.findAllByItemOwnerIdAndStatusOrderByStartDesc(ownerId, BookingStatus.WAITING,
-                                pageable)
-                        .stream()
-                        .map(mapper::toBookingDto)
-                        .collect(Collectors.toList());
-                break;
-            case REJECTED:
-                result = repository.findAllByItemOwnerIdAndStatusOrderByStartDesc(ownerId, BookingStatus.REJECTED,
-                                pageable)
-                        .stream()
-                        .map(mapper::toBookingDto)
-                        .collect(Collectors.toList());
-                break;
-            case FUTURE:
-                result = repository.findAllByItemOwnerIdAndStartAfterOrderByStartDesc(ownerId, now, pageable).stream()
-                        .map(mapper::toBookingDto)
-                        .collect(Collectors.toList());
-                break;
-            case CURRENT:
-                result = repository.findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(ownerId, now,
-                                now, pageable).stream()
-                        .map(mapper::toBookingDto)
-                        .collect(Collectors.toList());
-                break;
-        }
+        List<BookingDto> result = repository.findAll(null, ownerId, state, LocalDateTime.now(),
+                        OffsetLimitPageable.of(from, size)).stream()
+                .map(mapper::toBookingDto)
+                .collect(Collectors.toList());
         log.info(" All bookings for owner with id {} and state {} has been returned", ownerId, state);
         return result;
     }
 
     @Override
-    public List<BookingDto> findAllByItemId(long itemId) {
-        List<BookingDto> list = repository.findByItem_id(itemId).stream()
+    @Transactional
+    public List<BookingDto> findAllByUser(long userId, BookingState state, Integer from, Integer size,
+                                          KeysetCursor cursor) {
+        if (cursor == null) {
+            return findAllByUser(userId, state, from, size);
+        }
+        userService.validateUserId(userId);
+        List<BookingDto> result = repository.findAllAfter(userId, null, state, LocalDateTime.now(), cursor,
+                        OffsetLimitPageable.saveUnboxing(size)).stream()
                 .map(mapper::toBookingDto)
-                .sorted((o1, o2) -> o2.getStart().compareTo(o1.getStart()))
                 .collect(Collectors.toList());
-        log.info(" All bookings for item with id {} and state {} has been returned", itemId);
-        return list;
+        log.info(" Bookings for user with id {} and state {} after cursor has been returned", userId, state);
+        return result;
     }
 
     @Override
-    public List<BookingDto> getPastByUser(Long userId) {
-        userService.validateUserId(userId);
-        List<BookingDto> list = repository.findAllByBookerIdAndEndBeforeOrderByStartDesc(userId, LocalDateTime.now())
-                .stream()
+    @Transactional
+    public List<BookingDto> findAllByOwner(long ownerId, BookingState state, Integer from, Integer size,
+                                           KeysetCursor cursor) {
+        if (cursor == null) {
+            return findAllByOwner(ownerId, state, from, size);
+        }
+        userService.validateUserId(ownerId);
+        List<BookingDto> result = repository.findAllAfter(null, ownerId, state, LocalDateTime.now(), cursor,
+                        OffsetLimitPageable.saveUnboxing(size)).stream()
                 .map(mapper::toBookingDto)
                 .collect(Collectors.toList());
-        log.info(" All past bookings for user with id {} has been returned", userId);
-        return list;
+        log.info(" Bookings for owner with id {} and state {} after cursor has been returned", ownerId, state);
+        return result;
+    }
+
+    @Override
+    @Transactional
+    public void exportAllByUser(long userId, BookingState state, Consumer<BookingExportDto> consumer) {
+        userService.validateUserId(userId);
+        try (Stream<BookingExportDto> bookings = repository.streamAll(userId, null, state, LocalDateTime.now(),
+                EXPORT_FETCH_SIZE)) {
+            bookings.forEach(consumer);
+        }
+        log.info(" All bookings for user with id {} and state {} has been exported", userId, state);
+    }
+
+    @Override
+    @Transactional
+    public void exportAllByOwner(long ownerId, BookingState state, Consumer<BookingExportDto> consumer) {
+        userService.validateUserId(ownerId);
+        try (Stream<BookingExportDto> bookings = repository.streamAll(null, ownerId, state, LocalDateTime.now(),
+                EXPORT_FETCH_SIZE)) {
+            bookings.forEach(consumer);
+        }
+        log.info(" All bookings for owner with id {} and state {} has been exported", ownerId, state);
+    }
+
+    @Override
+    public Map<Long, BookingDtoForItemDto> findLastByItemIds(Collection<Long> itemIds, LocalDateTime now) {
+        return groupByItemId(repository.findLastByItemIds(itemIds, now));
+    }
+
+    @Override
+    public Map<Long, BookingDtoForItemDto> findNextByItemIds(Collection<Long> itemIds, LocalDateTime now) {
+        return groupByItemId(repository.findNextByItemIds(itemIds, now));
+    }
+
+    @Override
+    public ItemAvailabilityDto getAvailability(long itemId, LocalDateTime start, LocalDateTime end) {
+        // период проверки не может быть пустым: конец строго позже начала, как и в шлюзе
+        if (!start.isBefore(end)) {
+            throw new EndDateValidateException();
+        }
+        List<BookingPeriodDto> periods = repository.findPeriodsByItemId(itemId, ACTIVE_STATUSES, start);
+        Duration duration = Duration.between(start, end);
+        LocalDateTime freeStart = start;
+        for (BookingPeriodDto period : periods) {
+            if (!period.getStart().isBefore(freeStart.plus(duration))) {
+                break;
+            }
+            if (period.getEnd().isAfter(freeStart)) {
+                freeStart = period.getEnd();
+            }
+        }
+        List<BookingPeriodDto> busy = periods.stream()
+                .filter(period -> period.getStart().isBefore(end))
+                .collect(Collectors.toList());
+        log.info("Availability of item with id {} from {} to {} has been returned", itemId, start, end);
+        return ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .start(start)
+                .end(end)
+                .available(busy.isEmpty())
+                .nextFreeStart(freeStart)
+                .busy(busy)
+                .build();
+    }
+
+    @Override
+    public boolean hasFinishedBooking(long userId, long itemId) {
+        return repository.existsByBookerIdAndItemIdAndStatusAndEndBefore(userId, itemId, BookingStatus.APPROVED,
+                LocalDateTime.now());
+    }
+
+    /**
+     * группировка бронирований по id вещи (при совпадении дат начала остаётся первое)
+     *
+     * @param bookings список бронирований
+     * @return бронирования по id вещи
+     */
+    private Map<Long, BookingDtoForItemDto> groupByItemId(List<BookingDtoForItemDto> bookings) {
+        return bookings.stream()
+                .collect(Collectors.toMap(BookingDtoForItemDto::getItemId, Function.identity(), (b1, b2) -> b1));
     }
 
     /**
@@ -226,8 +329,30 @@ public class BookingServiceImpl implements BookingService {
      * @param bookingDto dto объект бронирования
      */
     private void validationEndDate(CreatingBookingDto bookingDto) {
-        if (bookingDto.getStart().isAfter(bookingDto.getEnd())) {
+        validationPeriod(bookingDto.getStart(), bookingDto.getEnd());
+    }
+
+    /**
+     * валидация периода бронирования
+     *
+     * @param start начало периода
+     * @param end   окончание периода
+     */
+    private void validationPeriod(LocalDateTime start, LocalDateTime end) {
+        if (start.isAfter(end)) {
             throw new EndDateValidateException();
         }
     }
+
+    /**
+     * результат для бронирования, статус которого не изменён
+     *
+     * @param bookingId id бронирования
+     * @param status    текущий статус бронирования или null
+     * @param reason    исключение, которое выбросил бы метод approve
+     * @return результат с сообщением исключения
+     */
+    private static BookingApprovalDto failed(long bookingId, BookingStatus status, RuntimeException reason) {
+        return new BookingApprovalDto(bookingId, status, reason.getMessage());
+    }
 }
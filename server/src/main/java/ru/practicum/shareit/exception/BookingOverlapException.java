@@ -0,0 +1,14 @@
+package ru.practicum.shareit.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * исключение выбрасываемое при попытке забронировать вещь на период, пересекающийся с другим бронированием
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class BookingOverlapException extends RuntimeException {
+    public BookingOverlapException() {
+        super("This item is already booked for this period");
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * исключение выбрасываемое при передаче некорректного курсора постраничной выборки
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class CursorValidateException extends RuntimeException {
+    public CursorValidateException(String cursor) {
+        super("Invalid cursor: " + cursor);
+    }
+}
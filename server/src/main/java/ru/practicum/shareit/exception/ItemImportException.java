@@ -0,0 +1,15 @@
+package ru.practicum.shareit.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * исключение выбрасываемое при массовом импорте вещей, если вещь не разобрана или не заполнена
+ * (импорт отменяется целиком)
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class ItemImportException extends RuntimeException {
+    public ItemImportException(long index, String message) {
+        super("Item #" + index + ": " + message);
+    }
+}
@@ -1,12 +1,25 @@
 package ru.practicum.shareit.item.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.NdjsonWriter;
+import ru.practicum.shareit.booking.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoReader;
+import ru.practicum.shareit.item.dto.ItemImportDto;
 import ru.practicum.shareit.item.model.ItemUpdate;
 import ru.practicum.shareit.item.service.ItemService;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -17,25 +30,44 @@ import java.util.List;
 public class ItemController {
 
     private final ItemService service;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public ItemController(ItemService service) {
+    public ItemController(ItemService service, ObjectMapper objectMapper) {
         this.service = service;
+        this.objectMapper = objectMapper;
     }
 
     /**
      * просмотр пользователем всех его вещей
      *
      * @param userId - id пользователя
-     * @param from   - начальное значение выборки
+     * @param from   - начальное значение выборки (используется, если курсор не передан)
      * @param size   - размер выборки
+     * @param cursor - курсор из заголовка X-Next-Cursor предыдущей страницы
      * @return список dto-объектов вещей
      */
     @GetMapping
-    public List<ItemDto> getAllByUserId(@RequestHeader("X-Sharer-User-Id") long userId,
-                                        @RequestParam(defaultValue = "0") Integer from,
-                                        @RequestParam(defaultValue = "20") Integer size) {
-        return service.getAllByUserId(userId, from, size);
+    public ResponseEntity<List<ItemDto>> getAllByUserId(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                        @RequestParam(defaultValue = "0") Integer from,
+                                                        @RequestParam(defaultValue = "20") Integer size,
+                                                        @RequestParam(required = false) String cursor) {
+        List<ItemDto> list = service.getAllByUserId(userId, from, size, KeysetCursor.decode(cursor));
+        return KeysetCursor.page(list, size, i -> KeysetCursor.of(i.getId()));
+    }
+
+    /**
+     * выгрузка всех вещей пользователя потоком NDJSON
+     *
+     * @param userId   id пользователя
+     * @param response ответ, в тело которого пишутся dto объекты вещей по одному на строку
+     */
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportAllByUserId(@RequestHeader("X-Sharer-User-Id") long userId,
+                                  HttpServletResponse response) throws IOException {
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, response)) {
+            service.exportAllByUserId(userId, writer::accept);
+        }
     }
 
     /**
@@ -49,6 +81,25 @@ public class ItemController {
         return service.getById(itemId, userId);
     }
 
+    /**
+     * проверка доступности вещи для бронирования на период
+     *
+     * @param userId id пользователя
+     * @param itemId id вещи
+     * @param start  начало периода
+     * @param end    окончание периода
+     * @return dto объект доступности вещи
+     */
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getAvailability(@RequestHeader("X-Sharer-User-Id") long userId,
+                                               @PathVariable long itemId,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               LocalDateTime start,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               LocalDateTime end) {
+        return service.getAvailability(itemId, userId, start, end);
+    }
+
     /**
      * обновление вещи
      *
@@ -75,6 +126,22 @@ public class ItemController {
         return service.create(userId, itemDto);
     }
 
+    /**
+     * массовый импорт вещей владельца из JSON-массива или NDJSON (по объекту в строке);
+     * тело читается потоком, без построения списка всех вещей в памяти
+     *
+     * @param userId id владельца
+     * @param body   тело запроса
+     * @return dto объект результата импорта
+     */
+    @PostMapping(path = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ItemImportDto importItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                     InputStream body) throws IOException {
+        try (ItemDtoReader items = new ItemDtoReader(objectMapper, body)) {
+            return service.importItems(userId, items);
+        }
+    }
+
     /**
      * метод для текстового поиска вещей по нименованию или описанию без учёта регистра
      *
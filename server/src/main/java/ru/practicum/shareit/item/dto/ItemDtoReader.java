@@ -0,0 +1,62 @@
+package ru.practicum.shareit.item.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.practicum.shareit.exception.ItemImportException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * потоковое чтение dto объектов вещей из тела запроса: JSON-массива или NDJSON (по объекту в строке);
+ * в памяти держится только очередной объект, ошибка разбора сообщается с номером вещи (с 1)
+ */
+public class ItemDtoReader implements Iterator<ItemDto>, Closeable {
+    private final MappingIterator<ItemDto> values;
+    private long index;
+
+    public ItemDtoReader(ObjectMapper mapper, InputStream body) {
+        try {
+            values = mapper.readerFor(ItemDto.class).readValues(body);
+        } catch (IOException e) {
+            throw failed(e);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            return values.hasNextValue();
+        } catch (IOException e) {
+            throw failed(e);
+        }
+    }
+
+    @Override
+    public ItemDto next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        try {
+            ItemDto dto = values.nextValue();
+            index++;
+            return dto;
+        } catch (IOException e) {
+            throw failed(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        values.close();
+    }
+
+    private ItemImportException failed(IOException e) {
+        return new ItemImportException(index + 1, e instanceof JsonProcessingException
+                ? ((JsonProcessingException) e).getOriginalMessage() : e.getMessage());
+    }
+}
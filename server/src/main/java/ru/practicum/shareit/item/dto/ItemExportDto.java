@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * dto класс вещи для выгрузки: поля вещи без бронирований и комментариев
+ * (читается проекцией, сущности в контекст персистентности не попадают)
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemExportDto {
+    private long id;
+    private String name;
+    private String description;
+    private Boolean available;
+    private Long requestId;
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * dto класс результата массового импорта вещей
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class ItemImportDto {
+    private long imported;
+}
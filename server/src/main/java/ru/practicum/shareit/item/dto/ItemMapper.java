@@ -3,9 +3,10 @@ package ru.practicum.shareit.item.dto;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.requests.repository.ItemRequestRepository;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.EntityManager;
 import java.util.HashSet;
 
 /**
@@ -13,13 +14,11 @@ import java.util.HashSet;
  */
 @Component
 public class ItemMapper {
-    private final UserRepository userRepository;
-    private final ItemRequestRepository requestRepository;
+    private final EntityManager entityManager;
 
     @Autowired
-    public ItemMapper(UserRepository userRepository, ItemRequestRepository requestRepository) {
-        this.userRepository = userRepository;
-        this.requestRepository = requestRepository;
+    public ItemMapper(EntityManager entityManager) {
+        this.entityManager = entityManager;
     }
 
     /**
@@ -46,7 +45,28 @@ public class ItemMapper {
     }
 
     /**
-     * создание объекта вещи
+     * создание dto объекта вещи из закэшированных полей вещи (изменяемая копия без бронирований и комментариев)
+     *
+     * @param item dto объект вещи из кэша
+     * @return dto объект вещи
+     */
+    public ItemDto toItemDto(ItemShortDto item) {
+        return ItemDto.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .owner(item.getOwner())
+                .requestId(item.getRequestId())
+                .lastBooking(null)
+                .nextBooking(null)
+                .comments(new HashSet<>())
+                .build();
+    }
+
+    /**
+     * создание объекта вещи: владелец и запрос подставляются ссылками без чтения из БД, поэтому их существование
+     * проверяет вызывающий
      *
      * @param itemDto dto объект вещи
      * @return объект вещи
@@ -57,27 +77,10 @@ public class ItemMapper {
                 .description(itemDto.getDescription())
                 .available(itemDto.getAvailable())
                 .build();
-        item.setOwner(userRepository.findById(itemDto.getOwner()).get());
+        item.setOwner(entityManager.getReference(User.class, itemDto.getOwner()));
         if (itemDto.getRequestId() != null) {
-            item.setRequest(requestRepository.findById(itemDto.getRequestId()).get());
+            item.setRequest(entityManager.getReference(ItemRequest.class, itemDto.getRequestId()));
         }
         return item;
     }
-
-    /**
-     * соджания дто объекта вещи для добавления в запрос
-     *
-     * @param item - объект вещи
-     * @return дто объект вещи для добавления в запрос
-     */
-    public ItemDtoForRequest itemDtoForRequest(Item item) {
-        return ItemDtoForRequest.builder()
-                .id(item.getId())
-                .userId(item.getOwner().getId())
-                .name(item.getName())
-                .description(item.getDescription())
-                .available(item.getAvailable())
-                .requestId(item.getRequest().getId())
-                .build();
-    }
 }
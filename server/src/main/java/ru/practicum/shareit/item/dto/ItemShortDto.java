@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * dto класс вещи для кэша items: поля вещи и id владельца и запроса без бронирований и комментариев
+ * (читается проекцией и не изменяется, поэтому один объект можно отдавать всем потокам)
+ */
+@Getter
+@AllArgsConstructor
+public class ItemShortDto {
+    private final long id;
+    private final String name;
+    private final String description;
+    private final Boolean available;
+    private final long owner;
+    private final Long requestId;
+}
@@ -3,6 +3,11 @@ package ru.practicum.shareit.item.model;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.*;
@@ -10,22 +15,32 @@ import java.time.LocalDateTime;
 
 /**
  * класс комментария
+ * (связи загружаются лениво; граф Comment.view подгружает автора, имя которого нужно для dto;
+ * id выделяются блоками из последовательности comments_seq, см. {@link ru.practicum.shareit.PooledSequenceGenerator})
  */
 @Entity
 @Table(name = "comments")
+@NamedEntityGraph(name = Comment.VIEW_GRAPH, attributeNodes = @NamedAttributeNode("author"))
 @Data
 @Builder
 @AllArgsConstructor
 public class Comment {
+    public static final String VIEW_GRAPH = "Comment.view";
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "comments_seq")
+    @GenericGenerator(name = "comments_seq", strategy = "ru.practicum.shareit.PooledSequenceGenerator",
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "comments_seq"))
     private long id;
     private String text;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id", referencedColumnName = "id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Item item;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id", referencedColumnName = "id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User author;
     private LocalDateTime created;
 
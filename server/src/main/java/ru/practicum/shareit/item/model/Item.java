@@ -3,6 +3,11 @@ package ru.practicum.shareit.item.model;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import ru.practicum.shareit.requests.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
@@ -10,6 +15,8 @@ import javax.persistence.*;
 
 /**
  * класс сдаваемой в аренду вещи
+ * (владелец и запрос загружаются лениво: в dto попадают только их id, прочитанные из внешних ключей;
+ * id выделяются блоками из последовательности items_seq, см. {@link ru.practicum.shareit.PooledSequenceGenerator})
  */
 @Data
 @Builder
@@ -18,16 +25,22 @@ import javax.persistence.*;
 @AllArgsConstructor
 public class Item {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "items_seq")
+    @GenericGenerator(name = "items_seq", strategy = "ru.practicum.shareit.PooledSequenceGenerator",
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "items_seq"))
     private long id;
     private String name;
     private String description;
     private Boolean available;
-    @ManyToOne()
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id", referencedColumnName = "id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User owner;
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "request_id", referencedColumnName = "id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private ItemRequest request;
 
     public Item() {
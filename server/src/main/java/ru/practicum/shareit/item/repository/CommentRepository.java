@@ -1,8 +1,11 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -10,5 +13,17 @@ import java.util.List;
  */
 public interface CommentRepository extends CrudRepository<Comment, Long> {
 
+    @EntityGraph(Comment.VIEW_GRAPH)
+    @Query("select c from Comment as c where c.item.id = ?1")
     List<Comment> findByItemId(long itemId);
+
+    /**
+     * поиск комментариев к набору вещей одним запросом
+     *
+     * @param itemIds id вещей
+     * @return список комментариев вместе с авторами
+     */
+    @EntityGraph(Comment.VIEW_GRAPH)
+    @Query("select c from Comment as c where c.item.id in ?1")
+    List<Comment> findAllByItemIds(Collection<Long> itemIds);
 }
@@ -1,23 +1,70 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.dto.ItemDtoForRequest;
+import ru.practicum.shareit.item.dto.ItemExportDto;
+import ru.practicum.shareit.item.dto.ItemShortDto;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * репозиторий вещей
+ * (в кэше items хранятся dto вещей по id, сущности не кэшируются: сохранение и удаление вещи сбрасывают запись)
  */
-public interface ItemRepository extends CrudRepository<Item, Long> {
+public interface ItemRepository extends CrudRepository<Item, Long>, ItemRepositoryCustom {
+
+    /**
+     * поиск полей вещи по id через кэш items
+     * (проекция: владелец и запрос не загружаются, их id читаются из внешних ключей)
+     *
+     * @param id id вещи
+     * @return dto объект вещи
+     */
+    @Cacheable(cacheNames = "items", unless = "#result == null")
+    @Query("select new ru.practicum.shareit.item.dto.ItemShortDto(i.id, i.name, i.description, i.available, " +
+            "i.owner.id, i.request.id) from Item as i where i.id = ?1")
+    Optional<ItemShortDto> findDtoById(long id);
+
+    @Override
+    @CacheEvict(cacheNames = "items", key = "#p0.id")
+    <S extends Item> S save(S item);
+
+    @Override
+    @CacheEvict(cacheNames = "items", key = "#p0.id")
+    void delete(Item item);
+
+    /**
+     * поиск вещи с блокировкой её строки до конца транзакции (мимо кэша): бронирования одной вещи создаются
+     * по очереди, поэтому между проверкой пересечения и вставкой не может появиться другое бронирование
+     *
+     * @param id id вещи
+     * @return вещь
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item as i where i.id = ?1")
+    Optional<Item> findByIdForUpdate(long id);
+
     /**
-     * метод для получения списка id всех вещей
+     * проверка владения вещью точечным запросом по первичному ключу
      *
-     * @return список id всех вещей
+     * @param id      id вещи
+     * @param ownerId id пользователя
+     * @return true, если вещь принадлежит пользователю
      */
-    @Query("select id from Item")
-    List<Long> getAllItemsId();
+    boolean existsByIdAndOwnerId(long id, long ownerId);
 
     /**
      * просмотр владельцем списка всех его вещей
@@ -26,23 +73,60 @@ public interface ItemRepository extends CrudRepository<Item, Long> {
      * @param userId - id владельца вещей
      * @return лист всех вещей пользователя
      */
+    @Query("select i from Item as i where i.owner.id = ?1")
     List<Item> findByOwner_id(long userId);
 
+    @Query("select i from Item as i where i.owner.id = ?1")
     List<Item> findByOwner_id(long userId, Pageable pageable);
 
+    /**
+     * постраничная выборка вещей владельца по ключу id
+     *
+     * @param userId   id владельца вещей
+     * @param id       id последней полученной вещи
+     * @param pageable ограничение размера и сортировка выборки
+     * @return лист вещей пользователя после курсора
+     */
+    @Query("select i from Item as i where i.owner.id = ?1 and i.id > ?2")
+    List<Item> findByOwner_idAfter(long userId, long id, Pageable pageable);
+
 
     /**
      * метод для текстового поиска вещей по нименованию или описанию без учёта регистра
+     * (на PostgreSQL условия обслуживаются триграммными индексами по upper(name) и upper(description),
+     * см. миграцию V3__item_search_trigram_indexes.sql)
      *
      * @param text     - текст поиска
      * @param pageable
      * @return лист объектов доступных для аренды вещей, соответствующих запросу
      */
     @Query(" select i from Item as i " +
-            "where upper(i.name) like upper(concat('%', ?1, '%')) and i.available = true" +
-            "   or upper(i.description) like upper(concat('%', ?1, '%')) and i.available = true")
+            "where i.available = true " +
+            "  and (upper(i.name) like upper(concat('%', ?1, '%')) " +
+            "   or upper(i.description) like upper(concat('%', ?1, '%')))")
     List<Item> search(String text, Pageable pageable);
 
-    List<Item> findAllByRequestId(long requestId);
+    /**
+     * вещи, созданные в ответ на запросы, одним запросом для набора запросов
+     * (id владельца и запроса читаются из внешних ключей, связанные сущности не загружаются)
+     *
+     * @param requestIds id запросов
+     * @return dto объекты вещей для добавления в запросы
+     */
+    @Query("select new ru.practicum.shareit.item.dto.ItemDtoForRequest(i.id, i.name, i.description, i.available, " +
+            "i.request.id, i.owner.id) from Item as i where i.request.id in :requestIds")
+    List<ItemDtoForRequest> findAllForRequests(@Param("requestIds") Collection<Long> requestIds);
+
+    /**
+     * выборка всех вещей владельца для выгрузки в порядке id: строки читаются курсором БД порциями по 500
+     * строк (поток нужно закрыть, вызывать внутри транзакции)
+     *
+     * @param userId id владельца вещей
+     * @return поток dto объектов вещей
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new ru.practicum.shareit.item.dto.ItemExportDto(i.id, i.name, i.description, i.available, " +
+            "i.request.id) from Item as i where i.owner.id = ?1 order by i.id")
+    Stream<ItemExportDto> streamByOwner(long userId);
 
 }
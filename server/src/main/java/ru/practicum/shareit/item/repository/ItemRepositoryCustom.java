@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item.repository;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**
+ * дополнительные методы репозитория вещей
+ */
+public interface ItemRepositoryCustom {
+    /**
+     * вставка вещей одного владельца пакетом JDBC
+     * (владелец и запросы подставляются ссылками без чтения из БД, после вставки контекст персистентности
+     * очищается, чтобы при импорте по частям память не росла с числом вещей; кэш items не заполняется)
+     *
+     * @param ownerId id владельца, существование которого уже проверено
+     * @param items   вещи без владельца; у запроса, если он есть, заполнен только существующий id
+     */
+    void insertAll(long ownerId, List<Item> items);
+}
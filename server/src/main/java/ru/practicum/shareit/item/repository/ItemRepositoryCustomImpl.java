@@ -0,0 +1,41 @@
+package ru.practicum.shareit.item.repository;
+
+import org.hibernate.Session;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.transaction.Transactional;
+import java.util.List;
+
+/**
+ * реализация дополнительных методов репозитория вещей
+ */
+public class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public void insertAll(long ownerId, List<Item> items) {
+        Session session = entityManager.unwrap(Session.class);
+        Integer batchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(items.size());
+        try {
+            User owner = entityManager.getReference(User.class, ownerId);
+            for (Item item : items) {
+                item.setOwner(owner);
+                if (item.getRequest() != null) {
+                    item.setRequest(entityManager.getReference(ItemRequest.class, item.getRequest().getId()));
+                }
+                entityManager.persist(item);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        } finally {
+            session.setJdbcBatchSize(batchSize);
+        }
+    }
+}
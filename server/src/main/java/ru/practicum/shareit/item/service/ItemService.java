@@ -1,10 +1,17 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.booking.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemExportDto;
+import ru.practicum.shareit.item.dto.ItemImportDto;
 import ru.practicum.shareit.item.model.ItemUpdate;
 
+import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemService {
     /**
@@ -18,6 +25,26 @@ public interface ItemService {
 
     List<ItemDto> getAllByUserId(long userId, Integer from, Integer size);
 
+    /**
+     * просмотр владельцем его вещей с постраничной выборкой по курсору
+     *
+     * @param userId - id владельца вещей
+     * @param from   - начальное значение выборки (используется, если курсор не передан)
+     * @param size   - размер выборки
+     * @param cursor - курсор последней полученной вещи или null
+     * @return лист dto вещей пользователя
+     */
+    List<ItemDto> getAllByUserId(long userId, Integer from, Integer size, KeysetCursor cursor);
+
+    /**
+     * выгрузка всех вещей владельца в порядке id: вещи читаются курсором БД и передаются получателю по одной,
+     * без накопления списка
+     *
+     * @param userId   id владельца вещей
+     * @param consumer получатель dto объектов вещей
+     */
+    void exportAllByUserId(long userId, Consumer<ItemExportDto> consumer);
+
     /**
      * поиск вещи по id
      *
@@ -55,6 +82,17 @@ public interface ItemService {
      */
     ItemDto create(long userId, ItemDto itemDto);
 
+    /**
+     * массовый импорт вещей владельца одной транзакцией: владелец проверяется один раз, вещи читаются потоком
+     * и вставляются частями пакетами JDBC, запросы вещей каждой части проверяются одним запросом
+     * (при ошибке в любой вещи импорт отменяется целиком)
+     *
+     * @param userId id владельца
+     * @param items  dto объекты вещей в порядке импорта
+     * @return dto объект результата импорта
+     */
+    ItemImportDto importItems(long userId, Iterator<ItemDto> items);
+
     /**
      * удаление вещи владельцем
      *
@@ -72,4 +110,15 @@ public interface ItemService {
      * @return dto объект комментария
      */
     CommentDto addComment(long userId, long itemId, CommentDto comment);
+
+    /**
+     * проверка доступности вещи для бронирования на период
+     *
+     * @param itemId id вещи
+     * @param userId id пользователя
+     * @param start  начало периода
+     * @param end    окончание периода
+     * @return dto объект доступности вещи
+     */
+    ItemAvailabilityDto getAvailability(long itemId, long userId, LocalDateTime start, LocalDateTime end);
 }
@@ -2,44 +2,64 @@ package ru.practicum.shareit.item.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.KeysetCursor;
 import ru.practicum.shareit.OffsetLimitPageable;
-import ru.practicum.shareit.booking.dto.BookingDto;
-import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingDtoForItemDto;
+import ru.practicum.shareit.booking.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exception.CommentatorValidationException;
 import ru.practicum.shareit.exception.IsBlankException;
+import ru.practicum.shareit.exception.ItemImportException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentMapper;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemExportDto;
+import ru.practicum.shareit.item.dto.ItemImportDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemShortDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.model.ItemUpdate;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.requests.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.transaction.Transactional;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 public class ItemServiceImpl implements ItemService {
+    /**
+     * число вещей в одной части импорта: одна проверка запросов и один пакет JDBC на часть
+     */
+    private static final int IMPORT_BATCH_SIZE = 500;
+
     private final UserService userService;
     private final ItemRepository repository;
     private final CommentRepository commentRepository;
+    private final ItemRequestRepository requestRepository;
     @Lazy
     private final ItemMapper itemMapper;
-    @Lazy
-    private final BookingMapper bookingMapper;
     private final CommentMapper commentMapper;
     @Autowired
     @Lazy
@@ -47,23 +67,20 @@ public class ItemServiceImpl implements ItemService {
 
     @Autowired
     public ItemServiceImpl(UserService userService, ItemRepository repository, CommentRepository commentRepository,
-                           ItemMapper itemMapper, BookingMapper bookingMapper, CommentMapper commentMapper) {
+                           ItemRequestRepository requestRepository, ItemMapper itemMapper,
+                           CommentMapper commentMapper) {
         this.userService = userService;
         this.repository = repository;
         this.commentRepository = commentRepository;
+        this.requestRepository = requestRepository;
         this.itemMapper = itemMapper;
-        this.bookingMapper = bookingMapper;
         this.commentMapper = commentMapper;
     }
 
     @Override
     public List<ItemDto> getAllByUserId(long userId) {
         userService.validateUserId(userId);
-        List<ItemDto> list = repository.findByOwner_id(userId).stream()
-                .map(itemMapper::toItemDto)
-                .map(this::fillBookingInItemDto)
-                .map(this::addCommentsToItemDto)
-                .collect(Collectors.toList());
+        List<ItemDto> list = toItemDtosWithBookingsAndComments(repository.findByOwner_id(userId));
         log.info("All items by userId {} has been returned", userId);
         return list;
     }
@@ -72,20 +89,40 @@ public class ItemServiceImpl implements ItemService {
     public List<ItemDto> getAllByUserId(long userId, Integer from, Integer size) {
         userService.validateUserId(userId);
         Pageable pageable = OffsetLimitPageable.of(from, size, Sort.by(Sort.Direction.ASC, "id"));
-        List<ItemDto> list = repository.findByOwner_id(userId, pageable).stream()
-                .map(itemMapper::toItemDto)
-                .map(this::fillBookingInItemDto)
-                .map(this::addCommentsToItemDto)
-                .collect(Collectors.toList());
+        List<ItemDto> list = toItemDtosWithBookingsAndComments(repository.findByOwner_id(userId, pageable));
         log.info("All items by userId {} has been returned", userId);
         return list;
     }
 
+    @Override
+    public List<ItemDto> getAllByUserId(long userId, Integer from, Integer size, KeysetCursor cursor) {
+        if (cursor == null) {
+            return getAllByUserId(userId, from, size);
+        }
+        userService.validateUserId(userId);
+        Pageable pageable = OffsetLimitPageable.of(0, size, Sort.by(Sort.Direction.ASC, "id"));
+        List<ItemDto> list = toItemDtosWithBookingsAndComments(
+                repository.findByOwner_idAfter(userId, cursor.getId(), pageable));
+        log.info("Items by userId {} after cursor has been returned", userId);
+        return list;
+    }
+
+    @Override
+    @Transactional
+    public void exportAllByUserId(long userId, Consumer<ItemExportDto> consumer) {
+        userService.validateUserId(userId);
+        try (Stream<ItemExportDto> items = repository.streamByOwner(userId)) {
+            items.forEach(consumer);
+        }
+        log.info("All items by userId {} has been exported", userId);
+    }
+
     @Override
     public ItemDto getById(long id, long userId) {
-        validateItemId(id);
+        ItemShortDto item = repository.findDtoById(id)
+                .orElseThrow(() -> new NotFoundException("Item with id " + id + " not found"));
         userService.validateUserId(userId);
-        ItemDto itemDto = itemMapper.toItemDto(repository.findById(id).get());
+        ItemDto itemDto = itemMapper.toItemDto(item);
         if (itemDto.getOwner() == userId) {
             return addCommentsToItemDto(fillBookingInItemDto(itemDto));
         }
@@ -131,8 +168,12 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
+    @Transactional
     public ItemDto create(long userId, ItemDto itemDto) {
         userService.validateUserId(userId);
+        if (itemDto.getRequestId() != null && !requestRepository.existsById(itemDto.getRequestId())) {
+            throw new NotFoundException("Request with id " + itemDto.getRequestId() + " not found");
+        }
         itemDto.setOwner(userId);
         ItemDto returnedItemDto = itemMapper.toItemDto(repository.save(itemMapper.toItem(itemDto)));
         log.info("Item with id {} has been created", returnedItemDto.getId());
@@ -140,6 +181,31 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
+    @Transactional
+    public ItemImportDto importItems(long userId, Iterator<ItemDto> items) {
+        userService.validateUserId(userId);
+        long imported = 0;
+        List<ItemDto> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        while (items.hasNext()) {
+            batch.add(validateImported(items.next(), imported + batch.size() + 1));
+            if (batch.size() == IMPORT_BATCH_SIZE || !items.hasNext()) {
+                repository.insertAll(userId, toImportedItems(batch));
+                imported += batch.size();
+                batch.clear();
+            }
+        }
+        log.info("{} items of user {} have been imported", imported, userId);
+        return new ItemImportDto(imported);
+    }
+
+    /**
+     * удаление вещи; её бронирования удаляются каскадно в БД, поэтому кэш права на комментарий очищается целиком
+     *
+     * @param userId id владельца
+     * @param itemId id вещи
+     */
+    @Override
+    @CacheEvict(cacheNames = "commenters", allEntries = true)
     public void delete(long userId, long itemId) {
         userService.validateUserId(userId);
         validateItemId(itemId);
@@ -153,11 +219,7 @@ public class ItemServiceImpl implements ItemService {
     public CommentDto addComment(long userId, long itemId, CommentDto commentDto) {
         validateItemId(itemId);
         userService.validateUserId(userId);
-        List<Long> itemIds = bookingService.getPastByUser(userId).stream()
-                .map(BookingDto::getItem)
-                .map(ItemDto::getId)
-                .collect(Collectors.toList());
-        if (!itemIds.contains(itemId)) {
+        if (!bookingService.hasFinishedBooking(userId, itemId)) {
             throw new CommentatorValidationException();
         }
         Comment comment = commentMapper.toComment(commentDto);
@@ -169,63 +231,144 @@ public class ItemServiceImpl implements ItemService {
         return commentMapper.toCommentDto(comment);
     }
 
+    @Override
+    public ItemAvailabilityDto getAvailability(long itemId, long userId, LocalDateTime start, LocalDateTime end) {
+        ItemShortDto item = repository.findDtoById(itemId)
+                .orElseThrow(() -> new NotFoundException("Item with id " + itemId + " not found"));
+        userService.validateUserId(userId);
+        ItemAvailabilityDto dto = bookingService.getAvailability(itemId, start, end);
+        if (!item.getAvailable()) {
+            dto.setAvailable(false);
+            dto.setNextFreeStart(null);
+        }
+        return dto;
+    }
+
     /**
      * проверка существования вещи по id
      *
      * @param id - id проверяемой вещи
      */
     private void validateItemId(long id) {
-        if (!repository.getAllItemsId().contains(id)) {
+        if (!repository.existsById(id)) {
             throw new NotFoundException("Item with id " + id + " not found");
         }
     }
 
     /**
-     * проверка является ли пользователь владельцем
+     * проверка заполнения импортируемой вещи
      *
-     * @param userId id пользователя
+     * @param itemDto dto объект вещи
+     * @param index   номер вещи в импорте (с 1)
+     * @return dto объект вещи
+     */
+    private static ItemDto validateImported(ItemDto itemDto, long index) {
+        if (itemDto == null) {
+            throw new ItemImportException(index, "item is null");
+        }
+        if (itemDto.getName() == null || itemDto.getName().isBlank()) {
+            throw new ItemImportException(index, "name can not is blank");
+        }
+        if (itemDto.getDescription() == null || itemDto.getDescription().isBlank()) {
+            throw new ItemImportException(index, "description can not is blank");
+        }
+        if (itemDto.getAvailable() == null) {
+            throw new ItemImportException(index, "available can not is null");
+        }
+        return itemDto;
+    }
+
+    /**
+     * создание вещей части импорта с проверкой их запросов одним запросом к БД
+     *
+     * @param itemDtos dto объекты вещей
+     * @return вещи без владельца; у запроса заполнен только id
      */
-    private void doUserHaveItems(long userId) {
-        if (getAllByUserId(userId).isEmpty()) {
-            throw new NotFoundException("This user with id " + userId + " doesn't have items");
+    private List<Item> toImportedItems(List<ItemDto> itemDtos) {
+        Set<Long> requestIds = itemDtos.stream()
+                .map(ItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> existing = requestIds.isEmpty() ? Set.of()
+                : new HashSet<>(requestRepository.findExistingIds(requestIds));
+        List<Item> items = new ArrayList<>(itemDtos.size());
+        for (ItemDto dto : itemDtos) {
+            ItemRequest request = null;
+            if (dto.getRequestId() != null) {
+                if (!existing.contains(dto.getRequestId())) {
+                    throw new NotFoundException("Request with id " + dto.getRequestId() + " not found");
+                }
+                request = ItemRequest.builder().id(dto.getRequestId()).build();
+            }
+            items.add(Item.builder()
+                    .name(dto.getName())
+                    .description(dto.getDescription())
+                    .available(dto.getAvailable())
+                    .request(request)
+                    .build());
         }
+        return items;
     }
 
     /**
      * проверка явсляется ли пользователь владельцем конкретной вещи
+     * (точечный запрос по первичному ключу вместо выборки всех вещей пользователя)
      *
      * @param userId id пользователя
      * @param itemId id вещи
      */
     private void doUserHaveThisItems(long userId, long itemId) {
-        doUserHaveItems(userId);
-        List<Item> items = new ArrayList<>(repository.findByOwner_id(userId));
-        items.stream()
-                .filter(i -> i.getId() == itemId)
-                .findFirst().orElseThrow(() ->
-                        new NotFoundException("This user with id " + userId + " doesn't have item with id " + itemId));
+        if (!repository.existsByIdAndOwnerId(itemId, userId)) {
+            throw new NotFoundException("This user with id " + userId + " doesn't have item with id " + itemId);
+        }
     }
 
     /**
-     * добавление бронирований в dto объект вещи
+     * добавление последнего и следующего бронирований в dto объект вещи
+     * (два чтения по индексу bookings (item_id, start_date) вместо загрузки всей истории бронирований вещи)
      *
      * @param itemDto dto объект вещи
      * @return dto объект вещи
      */
     private ItemDto fillBookingInItemDto(ItemDto itemDto) {
-        long itemId = itemDto.getId();
-        List<BookingDto> bookings = bookingService.findAllByItemId(itemId);
-        for (int i = bookings.size() - 1; i >= 0; i--) {
-            if (bookings.get(i).getStart().isAfter(LocalDateTime.now())) {
-                itemDto.setNextBooking(bookingMapper.toBookingForItemDto(bookings.get(i)));
-                if (i != bookings.size() - 1) {
-                    itemDto.setLastBooking(bookingMapper.toBookingForItemDto(bookings.get(i + 1)));
-                }
-            }
-        }
+        List<Long> itemIds = List.of(itemDto.getId());
+        LocalDateTime now = LocalDateTime.now();
+        itemDto.setLastBooking(bookingService.findLastByItemIds(itemIds, now).get(itemDto.getId()));
+        itemDto.setNextBooking(bookingService.findNextByItemIds(itemIds, now).get(itemDto.getId()));
         return itemDto;
     }
 
+    /**
+     * создание dto объектов вещей с последним и следующим бронированием и комментариями
+     * (количество запросов не зависит от количества вещей)
+     *
+     * @param items список вещей
+     * @return список dto объектов вещей
+     */
+    private List<ItemDto> toItemDtosWithBookingsAndComments(List<Item> items) {
+        List<ItemDto> dtos = items.stream()
+                .map(itemMapper::toItemDto)
+                .collect(Collectors.toList());
+        if (dtos.isEmpty()) {
+            return dtos;
+        }
+        List<Long> itemIds = dtos.stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, BookingDtoForItemDto> lastBookings = bookingService.findLastByItemIds(itemIds, now);
+        Map<Long, BookingDtoForItemDto> nextBookings = bookingService.findNextByItemIds(itemIds, now);
+        Map<Long, List<CommentDto>> comments = commentRepository.findAllByItemIds(itemIds).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(commentMapper::toCommentDto, Collectors.toList())));
+        for (ItemDto dto : dtos) {
+            dto.setLastBooking(lastBookings.get(dto.getId()));
+            dto.setNextBooking(nextBookings.get(dto.getId()));
+            dto.getComments().addAll(comments.getOrDefault(dto.getId(), List.of()));
+        }
+        return dtos;
+    }
+
     /**
      * добавление комментариев в dto объект вещи
      *
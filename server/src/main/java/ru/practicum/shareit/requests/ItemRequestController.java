@@ -1,7 +1,9 @@
 package ru.practicum.shareit.requests;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.KeysetCursor;
 import ru.practicum.shareit.requests.dto.CreatedItemRequestDto;
 import ru.practicum.shareit.requests.dto.ItemRequestDto;
 import ru.practicum.shareit.requests.service.ItemRequestService;
@@ -61,15 +63,18 @@ public class ItemRequestController {
      * поиск всех запросов других пользователей
      *
      * @param userId id пользователя
-     * @param from   начальный элемент выборки
+     * @param from   начальный элемент выборки (используется, если курсор не передан)
      * @param size   размер выборки
+     * @param cursor курсор из заголовка X-Next-Cursor предыдущей страницы
      * @return список всех запросов других пользователей
      */
     @GetMapping("/all")
-    public List<ItemRequestDto> findAllOnPage(@RequestHeader("X-Sharer-User-Id") long userId,
-                                              @RequestParam(defaultValue = "0") Integer from,
-                                              @RequestParam(defaultValue = "20") Integer size) {
-        return service.findAllOnPage(userId, from, size);
+    public ResponseEntity<List<ItemRequestDto>> findAllOnPage(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                              @RequestParam(defaultValue = "0") Integer from,
+                                                              @RequestParam(defaultValue = "20") Integer size,
+                                                              @RequestParam(required = false) String cursor) {
+        List<ItemRequestDto> list = service.findAllOnPage(userId, from, size, KeysetCursor.decode(cursor));
+        return KeysetCursor.page(list, size, r -> KeysetCursor.of(r.getCreated(), r.getId()));
     }
 
 }
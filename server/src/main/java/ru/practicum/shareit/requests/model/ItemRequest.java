@@ -3,6 +3,11 @@ package ru.practicum.shareit.requests.model;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.*;
@@ -10,6 +15,8 @@ import java.time.LocalDateTime;
 
 /**
  * класс запроса вещи
+ * (автор запроса загружается лениво: в dto попадает только его id;
+ * id выделяются блоками из последовательности requests_seq, см. {@link ru.practicum.shareit.PooledSequenceGenerator})
  */
 @Data
 @Builder
@@ -18,11 +25,15 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class ItemRequest {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "requests_seq")
+    @GenericGenerator(name = "requests_seq", strategy = "ru.practicum.shareit.PooledSequenceGenerator",
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "requests_seq"))
     private long id;
     private String description;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "requester_id", referencedColumnName = "id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User requester;
     private LocalDateTime created;
 
@@ -5,16 +5,38 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import ru.practicum.shareit.requests.model.ItemRequest;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * репозиторий запросов вещей
  */
 public interface ItemRequestRepository extends CrudRepository<ItemRequest, Long> {
-    @Query("select id from ItemRequest")
-    List<Long> getAllItemsId();
-
     List<ItemRequest> findItemRequestByRequester_IdOrderByCreatedDesc(long requesterId);
 
     List<ItemRequest> findItemRequestByRequester_IdNot(long requesterId, Pageable pageable);
+
+    /**
+     * постраничная выборка запросов других пользователей по ключу (created, id) в порядке убывания
+     *
+     * @param requesterId id пользователя
+     * @param created     дата создания последнего полученного запроса
+     * @param id          id последнего полученного запроса
+     * @param pageable    ограничение размера выборки
+     * @return список запросов после курсора
+     */
+    @Query("select r from ItemRequest as r " +
+            "where r.requester.id <> ?1 and r.created <= ?2 and (r.created < ?2 or r.id < ?3) " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequest> findAllAfter(long requesterId, LocalDateTime created, long id, Pageable pageable);
+
+    /**
+     * существующие запросы из набора одним запросом
+     *
+     * @param ids id запросов
+     * @return id найденных запросов
+     */
+    @Query("select r.id from ItemRequest as r where r.id in ?1")
+    List<Long> findExistingIds(Collection<Long> ids);
 }
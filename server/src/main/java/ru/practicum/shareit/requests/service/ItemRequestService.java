@@ -1,5 +1,6 @@
 package ru.practicum.shareit.requests.service;
 
+import ru.practicum.shareit.KeysetCursor;
 import ru.practicum.shareit.requests.dto.CreatedItemRequestDto;
 import ru.practicum.shareit.requests.dto.ItemRequestDto;
 
@@ -44,4 +45,15 @@ public interface ItemRequestService {
      * @return список дто объекто всех запросов других пользователей
      */
     List<ItemRequestDto> findAllOnPage(long userId, Integer from, Integer size);
+
+    /**
+     * поиск всех запросов других пользователей с постраничной выборкой по курсору
+     *
+     * @param userId id пользователя
+     * @param from   начальный элемент выборки (используется, если курсор не передан)
+     * @param size   размер выборки
+     * @param cursor курсор последнего полученного запроса или null
+     * @return список дто объекто всех запросов других пользователей
+     */
+    List<ItemRequestDto> findAllOnPage(long userId, Integer from, Integer size, KeysetCursor cursor);
 }
@@ -5,9 +5,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
+import ru.practicum.shareit.KeysetCursor;
 import ru.practicum.shareit.OffsetLimitPageable;
 import ru.practicum.shareit.exception.NotFoundException;
-import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemDtoForRequest;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.requests.dto.CreatedItemRequestDto;
 import ru.practicum.shareit.requests.dto.ItemRequestDto;
@@ -19,6 +20,7 @@ import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Component
@@ -28,17 +30,15 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final UserService userService;
     private final ItemRepository itemRepository;
     private final ItemRequestMapper mapper;
-    private final ItemMapper itemMapper;
 
     @Autowired
     public ItemRequestServiceImpl(ItemRequestRepository repository, UserService userService,
-                                  ItemRepository itemRepository, ItemRequestMapper mapper, ItemMapper itemMapper) {
+                                  ItemRepository itemRepository, ItemRequestMapper mapper) {
         this.repository = repository;
         this.userService = userService;
         this.itemRepository = itemRepository;
 
         this.mapper = mapper;
-        this.itemMapper = itemMapper;
     }
 
     @Override
@@ -59,7 +59,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         userService.validateUserId(userId);
         validate(requestId);
         ItemRequestDto dto = mapper.toItemRequestDto(repository.findById(requestId).get());
-        addItemDto(dto);
+        addItemDtos(List.of(dto));
         log.info("Request for item with id {} has been returned", dto.getId());
         return dto;
     }
@@ -67,10 +67,10 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     @Override
     public List<ItemRequestDto> findAllByUser(long userId) {
         userService.validateUserId(userId);
-        List<ItemRequestDto> list = repository.findItemRequestByRequester_IdOrderByCreatedDesc(userId).stream()
+        List<ItemRequestDto> list = addItemDtos(repository.findItemRequestByRequester_IdOrderByCreatedDesc(userId)
+                .stream()
                 .map(mapper::toItemRequestDto)
-                .map(this::addItemDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
         log.info("All requests for item by user {} has been returned", userId);
         return list;
     }
@@ -79,26 +79,53 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     public List<ItemRequestDto> findAllOnPage(long userId, Integer from, Integer size) {
         userService.validateUserId(userId);
         Pageable pageable = OffsetLimitPageable.of(from, size, Sort.by(Sort.Direction.DESC, "created"));
-        List<ItemRequestDto> list = repository.findItemRequestByRequester_IdNot(userId, pageable).stream()
+        List<ItemRequestDto> list = addItemDtos(repository.findItemRequestByRequester_IdNot(userId, pageable).stream()
                 .map(mapper::toItemRequestDto)
-                .map(this::addItemDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
         log.info("All requests for item by other users {} has been returned", userId);
         return list;
     }
 
-    private ItemRequestDto addItemDto(ItemRequestDto dto) {
-        if (dto.getItems() == null) {
-            return dto;
+    @Override
+    public List<ItemRequestDto> findAllOnPage(long userId, Integer from, Integer size, KeysetCursor cursor) {
+        if (cursor == null) {
+            return findAllOnPage(userId, from, size);
         }
-        itemRepository.findAllByRequestId(dto.getId()).stream()
-                .map(itemMapper::itemDtoForRequest)
-                .forEach(dto.getItems()::add);
-        return dto;
+        userService.validateUserId(userId);
+        Pageable pageable = OffsetLimitPageable.of(0, size);
+        List<ItemRequestDto> list = addItemDtos(repository.findAllAfter(userId, cursor.requirePosition(),
+                        cursor.getId(), pageable).stream()
+                .map(mapper::toItemRequestDto)
+                .collect(Collectors.toList()));
+        log.info("Requests for item by other users {} after cursor has been returned", userId);
+        return list;
+    }
+
+    /**
+     * добавление вещей в dto объекты запросов одним запросом для всей страницы
+     *
+     * @param dtos список dto объектов запросов
+     * @return тот же список dto объектов запросов
+     */
+    private List<ItemRequestDto> addItemDtos(List<ItemRequestDto> dtos) {
+        if (dtos.isEmpty()) {
+            return dtos;
+        }
+        List<Long> requestIds = dtos.stream()
+                .map(ItemRequestDto::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<ItemDtoForRequest>> items = itemRepository.findAllForRequests(requestIds).stream()
+                .collect(Collectors.groupingBy(ItemDtoForRequest::getRequestId));
+        for (ItemRequestDto dto : dtos) {
+            if (dto.getItems() != null) {
+                dto.getItems().addAll(items.getOrDefault(dto.getId(), List.of()));
+            }
+        }
+        return dtos;
     }
 
     private void validate(long requestId) {
-        if (!repository.getAllItemsId().contains(requestId)) {
+        if (!repository.existsById(requestId)) {
             throw new NotFoundException("This request not found");
         }
     }
@@ -22,6 +22,34 @@ public class UserMapper {
                 .build();
     }
 
+    /**
+     * метод для создания Dto объекта пользователя из закэшированного dto (изменяемая копия)
+     *
+     * @param user - dto объект пользователя из кэша
+     * @return - Dto объект
+     */
+    public static UserDto toUserDto(UserShortDto user) {
+        return UserDto.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .build();
+    }
+
+    /**
+     * метод для создания объекта пользователя из закэшированного dto
+     *
+     * @param user - dto объект пользователя из кэша
+     * @return - объект пользователя
+     */
+    public static User toUser(UserShortDto user) {
+        return User.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .build();
+    }
+
     /**
      * метод для создания объекта пользователя из Dto объекта
      *
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * dto класс пользователя для кэша users (читается проекцией и не изменяется, поэтому один объект можно отдавать
+ * всем потокам)
+ */
+@Getter
+@AllArgsConstructor
+public class UserShortDto {
+    private final long id;
+    private final String name;
+    private final String email;
+}
@@ -2,11 +2,15 @@ package ru.practicum.shareit.user.model;
 
 import lombok.Builder;
 import lombok.Data;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 
 /**
  * класс пользователя
+ * (id выделяются блоками из последовательности users_seq, см. {@link ru.practicum.shareit.PooledSequenceGenerator})
  */
 @Builder
 @Data
@@ -14,7 +18,9 @@ import javax.persistence.*;
 @Table(name = "users", schema = "public")
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "users_seq")
+    @GenericGenerator(name = "users_seq", strategy = "ru.practicum.shareit.PooledSequenceGenerator",
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "users_seq"))
     private Long id;
     private String name;
     private String email;
@@ -1,28 +1,58 @@
 package ru.practicum.shareit.user.repository;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.user.dto.UserShortDto;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * интерфейс репозитория пользователей
+ * (в кэше users хранятся dto пользователей по id, сущности не кэшируются: сохранение и удаление сбрасывают запись)
  */
 public interface UserRepository extends CrudRepository<User, Long> {
 
-    @Query("select u.id from User as u")
-    List<Long> getAllUsersId();
-
-
+    /**
+     * поиск пользователя по id через кэш users
+     *
+     * @param id id пользователя
+     * @return dto объект пользователя
+     */
+    @Cacheable(cacheNames = "users", unless = "#result == null")
+    @Query("select new ru.practicum.shareit.user.dto.UserShortDto(u.id, u.name, u.email) from User as u where u.id = ?1")
+    Optional<UserShortDto> findDtoById(long id);
+
+    @Override
+    @CacheEvict(cacheNames = "users", key = "#p0.id", condition = "#p0.id != null")
+    <S extends User> S save(S user);
+
+    @Override
+    @CacheEvict(cacheNames = "users")
+    void deleteById(Long id);
+
+    /**
+     * проверка занятости email точечным запросом по уникальному индексу UQ_USER_EMAIL
+     *
+     * @param email нормализованный email
+     * @return true, если email уже занят
+     */
+    boolean existsByEmail(String email);
+
+    /**
+     * email всех пользователей (только для загрузки хранимого в памяти множества email при старте)
+     */
     @Query("select u.email from User as u")
     List<String> getAllUsersEmail();
 
     @Transactional
     @Modifying
-    @Query(value = "ALTER TABLE users ALTER COLUMN id RESTART WITH 1", nativeQuery = true)
+    @Query(value = "ALTER SEQUENCE users_seq RESTART WITH 1", nativeQuery = true)
     void clearIncrement();
 
     @Transactional
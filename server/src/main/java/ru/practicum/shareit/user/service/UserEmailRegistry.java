@@ -0,0 +1,72 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * проверка занятости email пользователей. Email сравниваются без учёта регистра: сервис сохраняет их
+ * в нормализованном виде, поэтому проверка идёт точечным запросом по уникальному индексу UQ_USER_EMAIL.
+ * При shareit.users.email-set=true занятые email дополнительно хранятся в памяти (загружаются при старте)
+ * и проверяются без обращения к БД; этот режим рассчитан на один экземпляр сервера. В обоих режимах
+ * окончательную уникальность гарантирует ограничение UQ_USER_EMAIL
+ */
+@Component
+@Slf4j
+public class UserEmailRegistry {
+    private final UserRepository repository;
+    private final Set<String> emails;
+
+    @Autowired
+    public UserEmailRegistry(UserRepository repository, @Value("${shareit.users.email-set:false}") boolean inMemory) {
+        this.repository = repository;
+        if (inMemory) {
+            emails = ConcurrentHashMap.newKeySet();
+            repository.getAllUsersEmail().forEach(email -> emails.add(normalize(email)));
+            log.info("{} user emails have been loaded", emails.size());
+        } else {
+            emails = null;
+        }
+    }
+
+    /**
+     * приведение email к виду, в котором он хранится и сравнивается
+     *
+     * @param email email из запроса
+     * @return email без пробелов по краям в нижнем регистре или null
+     */
+    public static String normalize(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * занятие email перед сохранением пользователя; в режиме хранения в памяти занятие атомарно,
+     * поэтому из одновременных запросов с одним email проходит только один
+     *
+     * @param email нормализованный email
+     * @return true, если email был свободен
+     */
+    public boolean reserve(String email) {
+        if (emails != null) {
+            return emails.add(email);
+        }
+        return !repository.existsByEmail(email);
+    }
+
+    /**
+     * освобождение email после удаления пользователя, смены email или неудачного сохранения
+     *
+     * @param email email пользователя
+     */
+    public void release(String email) {
+        if (emails != null && email != null) {
+            emails.remove(normalize(email));
+        }
+    }
+}
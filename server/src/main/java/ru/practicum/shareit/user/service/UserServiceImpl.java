@@ -2,6 +2,7 @@ package ru.practicum.shareit.user.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.exception.EmailUsedException;
@@ -25,10 +26,12 @@ import java.util.stream.Collectors;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository repository;
+    private final UserEmailRegistry emails;
 
     @Autowired
-    public UserServiceImpl(UserRepository repository) {
+    public UserServiceImpl(UserRepository repository, UserEmailRegistry emails) {
         this.repository = repository;
+        this.emails = emails;
     }
 
     @Override
@@ -42,74 +45,113 @@ public class UserServiceImpl implements UserService {
         return list;
     }
 
+    /**
+     * создание пользователя; email сохраняется в нормализованном виде, занятый email отклоняется до вставки,
+     * а одновременная вставка того же email - ограничением UQ_USER_EMAIL
+     *
+     * @param userDto - объект пользователя
+     * @return dto объект пользователя
+     */
     @Override
     public UserDto create(UserDto userDto) {
         userDto.setId(0L);
+        String email = UserEmailRegistry.normalize(userDto.getEmail());
+        if (email != null && !emails.reserve(email)) {
+            throw new EmailUsedException("This email is already use");
+        }
+        userDto.setEmail(email);
         try {
             UserDto userdto = UserMapper.toUserDto(repository.save(UserMapper.toUser(userDto)));
             log.info("User with id {} has been created", userdto.getId());
             return userdto;
         } catch (DataIntegrityViolationException e) {
+            emails.release(email);
             throw new EmailUsedException("This email is already use");
         }
     }
 
+    /**
+     * обновление пользователя; новый email проверяется так же, как при создании (в том числе совпадающий
+     * с текущим email пользователя), прежний email освобождается после сохранения
+     *
+     * @param id   id пользователя
+     * @param user - объект пользователя
+     * @return dto объект пользователя
+     */
     @Override
     public UserDto update(Long id, UserUpdate user) {
-        validateUserId(id);
-        if (user.getEmail() != null) {
-            validateUserEmail(user.getEmail());
-        }
-        User userInDB = repository.findById(id).get();
+        User userInDB = repository.findById(id)
+                .orElseThrow(() -> new NotFoundException("User with id " + id + " not found"));
+        String oldEmail = userInDB.getEmail();
         if (user.getName() != null) {
             if (user.getName().isBlank()) {
                 throw new IsBlankException("Username");
             }
             userInDB.setName(user.getName());
         }
-        if (user.getEmail() != null) {
-            userInDB.setEmail(user.getEmail());
+        String email = UserEmailRegistry.normalize(user.getEmail());
+        if (email != null) {
+            if (!emails.reserve(email)) {
+                throw new EmailUsedException("User with email " + email + " already use");
+            }
+            userInDB.setEmail(email);
+        }
+        User saved;
+        try {
+            saved = repository.save(userInDB);
+        } catch (DataIntegrityViolationException e) {
+            emails.release(email);
+            throw new EmailUsedException("User with email " + email + " already use");
+        }
+        if (email != null) {
+            emails.release(oldEmail);
         }
-        UserDto userdto = UserMapper.toUserDto(repository.save(userInDB));
+        UserDto userdto = UserMapper.toUserDto(saved);
         log.info("User with id {} has been updated", userdto.getId());
         return userdto;
     }
 
+    /**
+     * поиск пользователя через кэш users; вызывающий получает свою копию закэшированного dto
+     *
+     * @param id id пользователя
+     * @return dto объект пользователя
+     */
     @Override
     public UserDto getById(long id) {
-        validateUserId(id);
-        UserDto dto = UserMapper.toUserDto(repository.findById(id).get());
+        UserDto dto = repository.findDtoById(id)
+                .map(UserMapper::toUserDto)
+                .orElseThrow(() -> new NotFoundException("User with id " + id + " not found"));
         log.info("User with id {} has been returned", id);
         return dto;
     }
 
+    /**
+     * удаление пользователя; его вещи и бронирования удаляются каскадно в БД, поэтому кэши вещей и права
+     * на комментарий очищаются целиком
+     *
+     * @param id - id пользователя
+     */
     @Override
+    @CacheEvict(cacheNames = {"items", "commenters"}, allEntries = true)
     public void delete(long id) {
-        validateUserId(id);
+        User user = repository.findById(id)
+                .orElseThrow(() -> new NotFoundException("User with id " + id + " not found"));
         repository.deleteById(id);
+        emails.release(user.getEmail());
         log.info("User with id {} has been deleted", id);
     }
 
     /**
      * метод проверки существования пользователя с заданым id
+     * (точечный запрос по первичному ключу вместо выборки id всех пользователей)
      *
      * @param id - id пользователя из запроса
      */
     @Override
     public void validateUserId(long id) {
-        if (!repository.getAllUsersId().contains(id)) {
+        if (!repository.existsById(id)) {
             throw new NotFoundException("User with id " + id + " not found");
         }
     }
-
-    /**
-     * метод проверки регистрации другого пользователя на уже зарегистрированный email
-     *
-     * @param email - email адресс из запроса
-     */
-    private void validateUserEmail(String email) {
-        if (repository.getAllUsersEmail().contains(email)) {
-            throw new EmailUsedException("User with email " + email + " already use");
-        }
-    }
 }
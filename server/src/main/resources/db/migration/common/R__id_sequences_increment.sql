@@ -0,0 +1,8 @@
+-- шаг последовательностей id приводится к текущему shareit.id.allocation-size (${id_allocation_size}): Hibernate
+-- читает размер блока при запуске, а V4 и V5 задали шаг один раз; Flyway повторяет эту миграцию при изменении
+-- значения свойства. Выданные id не пересекаются: pooled-lo начинает новый блок с текущего значения последовательности
+ALTER SEQUENCE users_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE requests_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE items_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE bookings_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE comments_seq INCREMENT BY ${id_allocation_size};
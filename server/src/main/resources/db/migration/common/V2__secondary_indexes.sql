@@ -0,0 +1,26 @@
+-- бронирования пользователя: выборки по состояниям, упорядоченные по дате начала, и курсор (start_date, id)
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+
+-- бронирования пользователя со статусом WAITING/REJECTED
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status ON bookings (booker_id, status, start_date DESC);
+
+-- бронирования вещи: последнее/следующее бронирование, проверка пересечений, выборки владельца
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date DESC, id DESC);
+
+-- вещи владельца, упорядоченные по id
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id, id);
+
+-- вещи, созданные в ответ на запрос
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+
+-- комментарии к вещи
+CREATE INDEX IF NOT EXISTS idx_comments_item ON comments (item_id);
+
+-- комментарии автора
+CREATE INDEX IF NOT EXISTS idx_comments_author ON comments (author_id);
+
+-- запросы пользователя, упорядоченные по дате создания
+CREATE INDEX IF NOT EXISTS idx_requests_requester_created ON requests (requester_id, created DESC);
+
+-- запросы других пользователей, упорядоченные по дате создания, и курсор (created, id)
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests (created DESC, id DESC);
@@ -0,0 +1,2 @@
+-- проверка права на комментарий: завершённое подтверждённое бронирование вещи пользователем
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_item ON bookings (booker_id, item_id, status, end_date);
@@ -0,0 +1,7 @@
+-- id вещей выделяются блоками из последовательности (оптимизатор pooled-lo в Hibernate), чтобы массовая вставка
+-- не запрашивала id на каждую строку; шаг последовательности равен размеру блока shareit.id.allocation-size
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY ${id_allocation_size};
+
+-- вставки без id (например, из SQL-скриптов) берут значение из той же последовательности
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE items ALTER COLUMN id SET DEFAULT NEXT VALUE FOR items_seq;
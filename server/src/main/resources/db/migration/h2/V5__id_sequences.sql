@@ -0,0 +1,16 @@
+-- id пользователей, запросов, бронирований и комментариев выделяются блоками из последовательностей так же, как
+-- id вещей (V4): вставки объединяются в пакеты JDBC; шаг последовательностей равен shareit.id.allocation-size
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY ${id_allocation_size};
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY ${id_allocation_size};
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY ${id_allocation_size};
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY ${id_allocation_size};
+
+-- вставки без id (например, из SQL-скриптов) берут значение из тех же последовательностей
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT NEXT VALUE FOR users_seq;
+ALTER TABLE requests ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE requests ALTER COLUMN id SET DEFAULT NEXT VALUE FOR requests_seq;
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE bookings ALTER COLUMN id SET DEFAULT NEXT VALUE FOR bookings_seq;
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE comments ALTER COLUMN id SET DEFAULT NEXT VALUE FOR comments_seq;
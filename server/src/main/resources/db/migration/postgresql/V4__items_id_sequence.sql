@@ -0,0 +1,10 @@
+-- id вещей выделяются блоками из последовательности (оптимизатор pooled-lo в Hibernate), чтобы массовая вставка
+-- не запрашивала id на каждую строку; шаг последовательности равен размеру блока shareit.id.allocation-size
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY ${id_allocation_size};
+
+SELECT setval('items_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM items), false);
+
+-- вставки без id (например, из SQL-скриптов) берут значение из той же последовательности
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE items ALTER COLUMN id SET DEFAULT nextval('items_seq');
+ALTER SEQUENCE items_seq OWNED BY items.id;
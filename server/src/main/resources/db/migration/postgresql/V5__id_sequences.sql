@@ -0,0 +1,25 @@
+-- id пользователей, запросов, бронирований и комментариев выделяются блоками из последовательностей так же, как
+-- id вещей (V4): вставки объединяются в пакеты JDBC; шаг последовательностей равен shareit.id.allocation-size
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY ${id_allocation_size};
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY ${id_allocation_size};
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY ${id_allocation_size};
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY ${id_allocation_size};
+
+SELECT setval('users_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM users), false);
+SELECT setval('requests_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM requests), false);
+SELECT setval('bookings_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM bookings), false);
+SELECT setval('comments_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM comments), false);
+
+-- вставки без id (например, из SQL-скриптов) берут значение из тех же последовательностей
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+ALTER SEQUENCE users_seq OWNED BY users.id;
+ALTER TABLE requests ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE requests ALTER COLUMN id SET DEFAULT nextval('requests_seq');
+ALTER SEQUENCE requests_seq OWNED BY requests.id;
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE bookings ALTER COLUMN id SET DEFAULT nextval('bookings_seq');
+ALTER SEQUENCE bookings_seq OWNED BY bookings.id;
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE comments ALTER COLUMN id SET DEFAULT nextval('comments_seq');
+ALTER SEQUENCE comments_seq OWNED BY comments.id;
@@ -0,0 +1,55 @@
+package ru.practicum.shareit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+/**
+ * одновременный запуск действия в нескольких потоках для тестов гонок
+ */
+public final class ConcurrentCalls {
+    public static final int THREADS = 8;
+
+    private ConcurrentCalls() {
+    }
+
+    /**
+     * одновременный запуск действия в THREADS потоках
+     *
+     * @param action действие, получающее номер потока
+     * @return число потоков, завершивших действие без ошибки
+     */
+    public static int run(IntConsumer action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int thread = i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        action.accept(thread);
+                        return true;
+                    } catch (RuntimeException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int succeeded = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    succeeded++;
+                }
+            }
+            return succeeded;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * тестовый класс ограничения числа соединений с БД в режиме виртуальных потоков
+ */
+class ConnectionPermitDataSourceTest {
+
+    /**
+     * сверх лимита соединение не выдаётся до закрытия ранее выданного, повторное закрытие разрешение не возвращает
+     */
+    @Test
+    void test44_permits() throws SQLException {
+        DataSource target = Mockito.mock(DataSource.class);
+        Connection connection = Mockito.mock(Connection.class);
+        Mockito.when(target.getConnection()).thenReturn(connection);
+        ConnectionPermitDataSource dataSource = new ConnectionPermitDataSource(target, 1, Duration.ofMillis(50));
+
+        Connection first = dataSource.getConnection();
+        assertEquals(0, dataSource.availablePermits());
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        first.close();
+        first.close();
+        Mockito.verify(connection, Mockito.times(2)).close();
+        assertEquals(1, dataSource.availablePermits());
+
+        Mockito.when(target.getConnection()).thenThrow(new SQLException("pool is closed"));
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertEquals(1, dataSource.availablePermits());
+    }
+
+    /**
+     * при исчерпании разрешений потоки ждут своей очереди: к источнику одновременно обращаются не больше лимита
+     * потоков, а дождавшиеся разрешения до истечения времени ожидания получают соединение
+     */
+    @Test
+    void test75_exhaustedPermits() throws Exception {
+        AtomicInteger open = new AtomicInteger();
+        AtomicInteger maxOpen = new AtomicInteger();
+        DataSource target = Mockito.mock(DataSource.class);
+        Mockito.when(target.getConnection()).thenAnswer(invocation -> {
+            maxOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+            return Mockito.mock(Connection.class, call -> {
+                if (call.getMethod().getName().equals("close")) {
+                    open.decrementAndGet();
+                }
+                return null;
+            });
+        });
+        ConnectionPermitDataSource dataSource = new ConnectionPermitDataSource(target, 2, Duration.ofSeconds(10));
+
+        assertEquals(ConcurrentCalls.THREADS, ConcurrentCalls.run(i -> {
+            try (Connection connection = dataSource.getConnection()) {
+                Thread.sleep(20);
+            } catch (SQLException | InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        assertEquals(2, maxOpen.get());
+        assertEquals(0, open.get());
+        assertEquals(2, dataSource.availablePermits());
+    }
+}
@@ -0,0 +1,225 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.dto.CreatingBookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.CommentatorValidationException;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemShortDto;
+import ru.practicum.shareit.item.model.ItemUpdate;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserShortDto;
+import ru.practicum.shareit.user.model.UserUpdate;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * тестовый класс кэша пользователей и вещей
+ */
+@SpringBootTest(properties = {
+        "spring.cache.type=caffeine",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EntityCacheTest {
+    private final LocalDateTime now = LocalDateTime.now().withNano(0);
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * создание бронирования с прогретым кэшем выполняет меньше запросов, чем с пустым
+     */
+    @Test
+    void test45_bookingCreationQueries() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        clearCaches();
+        statistics.clear();
+        bookingService.create(2L, booking(1));
+        long coldStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+        bookingService.create(2L, booking(3));
+        long warmStatements = statistics.getPrepareStatementCount();
+
+        assertTrue(warmStatements < coldStatements);
+        FunctionCounter hits = meterRegistry.find("cache.gets").tags("cache", "users", "result", "hit")
+                .functionCounter();
+        assertNotNull(hits);
+        assertTrue(hits.count() > 0);
+    }
+
+    /**
+     * изменение и удаление пользователей и вещей сбрасывает закэшированные объекты
+     */
+    @Test
+    void test46_invalidation() {
+        UserUpdate userUpdate = new UserUpdate();
+        userUpdate.setName("Vladimir");
+        userService.update(1L, userUpdate);
+        assertEquals("Vladimir", userService.getById(1L).getName());
+
+        itemService.update(1L, 1L, ItemUpdate.builder().available(false).build());
+        assertFalse(itemService.getById(1L, 2L).getAvailable());
+
+        userService.delete(1L);
+        assertNull(cacheManager.getCache("users").get(1L));
+        assertNull(cacheManager.getCache("items").get(1L));
+    }
+
+    /**
+     * право на комментарий кэшируется только положительным ответом и сбрасывается удалением пользователя
+     */
+    @Test
+    void test72_commenterCache() {
+        bookingService.approve(1L, true, bookingService.create(2L, CreatingBookingDto.builder()
+                .itemId(1L)
+                .start(now.minusDays(2))
+                .end(now.minusDays(1))
+                .build()).getId());
+        itemService.addComment(2L, 1L, CommentDto.builder().text("Comment").build());
+        assertEquals(true, cacheManager.getCache("commenters").get("2:1").get());
+        assertThrows(CommentatorValidationException.class, () -> itemService.addComment(1L, 1L,
+                CommentDto.builder().text("Comment").build()));
+        assertNull(cacheManager.getCache("commenters").get("1:1"));
+
+        userService.delete(2L);
+        assertNull(cacheManager.getCache("commenters").get("2:1"));
+    }
+
+    /**
+     * в кэшах хранятся неизменяемые dto, а не сущности: закэшированный пользователь используется бронированиями
+     * из разных потоков, а изменение полученной копии не меняет кэш
+     */
+    @Test
+    void test74_cachedDtos() throws Exception {
+        userService.getById(2L).setName("Changed");
+        itemService.getById(1L, 2L);
+        assertEquals("Ivan", userService.getById(2L).getName());
+        assertTrue(cacheManager.getCache("users").get(2L).get() instanceof UserShortDto);
+        assertTrue(cacheManager.getCache("items").get(1L).get() instanceof ItemShortDto);
+
+        assertEquals(ConcurrentCalls.THREADS, ConcurrentCalls.run(i -> bookingService.create(2L, booking(2 * i + 1))));
+        assertEquals(ConcurrentCalls.THREADS, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM bookings WHERE booker_id = 2", Integer.class));
+    }
+
+    /**
+     * сервисы сбрасывают в кэшах только изменённые записи: обновление и удаление пользователя и вещи сбрасывают
+     * их запись, создание (сохранение без id) не затрагивает закэшированные записи
+     */
+    @Test
+    void test79_serviceEvictions() {
+        userService.getById(1L);
+        userService.getById(2L);
+        itemService.getById(1L, 2L);
+        UserUpdate userUpdate = new UserUpdate();
+        userUpdate.setEmail("ivan@mail.ru");
+        userService.update(2L, userUpdate);
+        assertNull(cacheManager.getCache("users").get(2L));
+        assertNotNull(cacheManager.getCache("users").get(1L));
+        assertEquals("ivan@mail.ru", userService.getById(2L).getEmail());
+
+        long created = userService.create(UserDto.builder().name("Petr").email("petr@mail.ru").build()).getId();
+        assertNotNull(cacheManager.getCache("users").get(1L));
+        assertNotNull(cacheManager.getCache("users").get(2L));
+        assertNull(cacheManager.getCache("users").get(created));
+
+        long second = itemService.create(1L, ItemDto.builder().name("Дрель").description("Bosch").available(true)
+                .build()).getId();
+        itemService.getById(second, 2L);
+        assertNotNull(cacheManager.getCache("items").get(1L));
+        itemService.update(1L, 1L, ItemUpdate.builder().name("Машина 2").build());
+        assertNull(cacheManager.getCache("items").get(1L));
+        assertNotNull(cacheManager.getCache("items").get(second));
+        assertEquals("Машина 2", itemService.getById(1L, 2L).getName());
+
+        itemService.delete(1L, second);
+        assertNull(cacheManager.getCache("items").get(second));
+        assertNotNull(cacheManager.getCache("items").get(1L));
+
+        userService.getById(created);
+        userService.delete(created);
+        assertNull(cacheManager.getCache("users").get(created));
+        assertNotNull(cacheManager.getCache("users").get(1L));
+    }
+
+    /**
+     * создание окружения
+     */
+    @BeforeEach
+    void createEnvironment() {
+        clearEnvironment();
+        UserDto user = UserDto.builder()
+                .name("Voldemar")
+                .email("voldemar@mail.ru")
+                .build();
+        userService.create(user);
+        user.setName("Ivan");
+        user.setEmail("ivan@ivan.ru");
+        userService.create(user);
+        itemService.create(1L, ItemDto.builder()
+                .name("Машина")
+                .description("Audi TT")
+                .available(true)
+                .owner(1)
+                .comments(new HashSet<>())
+                .build());
+    }
+
+    /**
+     * очистка окружения
+     */
+    @AfterEach
+    void clearEnvironment() {
+        jdbcTemplate.update("SET REFERENTIAL_INTEGRITY = FALSE");
+        for (String table : List.of("users", "bookings", "comments", "items")) {
+            jdbcTemplate.update("TRUNCATE TABLE " + table);
+            jdbcTemplate.update("ALTER SEQUENCE " + table + "_seq RESTART WITH 1");
+        }
+        jdbcTemplate.update("SET REFERENTIAL_INTEGRITY = TRUE");
+        clearCaches();
+    }
+
+    private void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    private CreatingBookingDto booking(int days) {
+        return CreatingBookingDto.builder()
+                .itemId(1L)
+                .start(now.plusDays(days))
+                .end(now.plusDays(days + 1))
+                .build();
+    }
+}
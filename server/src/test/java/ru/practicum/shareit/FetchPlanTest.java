@@ -0,0 +1,179 @@
+package ru.practicum.shareit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.CreatingBookingDto;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.requests.dto.CreatedItemRequestDto;
+import ru.practicum.shareit.requests.dto.ItemRequestDto;
+import ru.practicum.shareit.requests.service.ItemRequestService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * количество запросов к БД для каждого метода сервисов, вызываемого контроллерами
+ * (вещи отвечают на запросы разных пользователей и забронированы разными пользователями, поэтому
+ * догрузка связей по одной сущности сразу изменит число запросов)
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class FetchPlanTest {
+    private static final int ITEMS_COUNT = 6;
+    private final LocalDateTime now = LocalDateTime.now().withNano(0);
+    private Statistics statistics;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemRequestService requestService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * просмотр, подтверждение и списки бронирований
+     */
+    @Test
+    void test52_bookingStatements() {
+        BookingDto booking = count(2, () -> bookingService.findById(2L, 1L));
+        assertEquals("Ivan", booking.getBooker().getName());
+        assertEquals("Машина 0", booking.getItem().getName());
+        assertEquals(1, booking.getItem().getOwner());
+
+        List<BookingDto> bookerList = count(2, () -> bookingService.findAllByUser(3L, BookingState.ALL, 0, 20));
+        assertEquals(ITEMS_COUNT, bookerList.size());
+        bookerList.forEach(dto -> assertEquals("Petr", dto.getBooker().getName()));
+        List<BookingDto> ownerList = count(2, () -> bookingService.findAllByOwner(1L, BookingState.ALL, 0, 20));
+        assertEquals(2 * ITEMS_COUNT, ownerList.size());
+        assertEquals(ITEMS_COUNT / 2, count(2, () -> bookingService.findAllByUser(2L, BookingState.PAST, 0, 20)).size());
+
+        BookingDto approved = count(3, () -> bookingService.approve(1L, true, 2L));
+        assertEquals("Petr", approved.getBooker().getName());
+    }
+
+    /**
+     * просмотр вещи, список вещей владельца и поиск
+     */
+    @Test
+    void test53_itemStatements() {
+        ItemDto ownerView = count(5, () -> itemService.getById(1L, 1L));
+        assertNotNull(ownerView.getLastBooking());
+        assertNotNull(ownerView.getNextBooking());
+        assertEquals(1L, ownerView.getRequestId());
+        assertEquals("Ivan", ownerView.getComments().iterator().next().getAuthorName());
+        assertEquals(1, count(3, () -> itemService.getById(1L, 2L)).getComments().size());
+
+        List<ItemDto> items = count(5, () -> itemService.getAllByUserId(1L, 0, 20));
+        assertEquals(ITEMS_COUNT, items.size());
+        items.forEach(dto -> assertEquals(1, dto.getComments().size()));
+        List<ItemDto> found = count(1, () -> itemService.search("audi", 0, 20));
+        assertEquals(ITEMS_COUNT, found.size());
+        found.forEach(dto -> assertNotNull(dto.getRequestId()));
+    }
+
+    /**
+     * просмотр запроса, запросы пользователя и запросы других пользователей
+     */
+    @Test
+    void test54_requestStatements() {
+        ItemRequestDto request = count(4, () -> requestService.getById(1L, 1L));
+        assertEquals(2, request.getRequester());
+        assertEquals(1, request.getItems().size());
+        assertEquals(ITEMS_COUNT / 2, count(3, () -> requestService.findAllByUser(3L)).size());
+        List<ItemRequestDto> page = count(3, () -> requestService.findAllOnPage(1L, 0, 20));
+        assertEquals(ITEMS_COUNT, page.size());
+        page.forEach(dto -> assertEquals(1, dto.getItems().size()));
+    }
+
+    /**
+     * создание окружения
+     */
+    @BeforeEach
+    void createEnvironment() {
+        clearEnvironment();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        UserDto user = UserDto.builder()
+                .name("Voldemar")
+                .email("voldemar@mail.ru")
+                .build();
+        userService.create(user);
+        user.setName("Ivan");
+        user.setEmail("ivan@ivan.ru");
+        userService.create(user);
+        user.setName("Petr");
+        user.setEmail("petr@petr.ru");
+        userService.create(user);
+        for (int i = 0; i < ITEMS_COUNT; i++) {
+            CreatedItemRequestDto requestDto = new CreatedItemRequestDto();
+            requestDto.setDescription("Нужна машина " + i);
+            long requestId = requestService.create(2L + i % 2, requestDto).getId();
+            long itemId = itemService.create(1L, ItemDto.builder()
+                    .name("Машина " + i)
+                    .description("Audi TT")
+                    .available(true)
+                    .requestId(requestId)
+                    .comments(new HashSet<>())
+                    .build()).getId();
+            long bookerId = 2L + i % 2;
+            for (long booker = 2L; booker <= 3L; booker++) {
+                boolean past = booker == bookerId;
+                long bookingId = bookingService.create(booker, CreatingBookingDto.builder()
+                        .itemId(itemId)
+                        .start(past ? now.minusDays(3) : now.plusDays(2))
+                        .end(past ? now.minusDays(2) : now.plusDays(3))
+                        .build()).getId();
+                if (past) {
+                    bookingService.approve(1L, true, bookingId);
+                }
+            }
+            itemService.addComment(bookerId, itemId, CommentDto.builder().text("Comment " + i).build());
+        }
+    }
+
+    /**
+     * очистка окружения
+     */
+    @AfterEach
+    void clearEnvironment() {
+        jdbcTemplate.update("SET REFERENTIAL_INTEGRITY = FALSE");
+        for (String table : List.of("users", "bookings", "comments", "requests", "items")) {
+            jdbcTemplate.update("TRUNCATE TABLE " + table);
+            jdbcTemplate.update("ALTER SEQUENCE " + table + "_seq RESTART WITH 1");
+        }
+        jdbcTemplate.update("SET REFERENTIAL_INTEGRITY = TRUE");
+    }
+
+    private <T> T count(long expected, Supplier<T> call) {
+        statistics.clear();
+        T result = call.get();
+        assertEquals(expected, statistics.getPrepareStatementCount());
+        return result;
+    }
+}
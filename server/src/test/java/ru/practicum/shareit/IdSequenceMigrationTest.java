@@ -0,0 +1,53 @@
+package ru.practicum.shareit;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * тестовый класс миграций последовательностей id
+ */
+class IdSequenceMigrationTest {
+
+    /**
+     * при изменении shareit.id.allocation-size повторная миграция меняет шаг всех последовательностей id,
+     * а выданные ранее значения сохраняются
+     */
+    @Test
+    void test77_incrementFollowsAllocationSize() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:sequences;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        migrate(dataSource, 1);
+        assertEquals(List.of(1L), increments(jdbcTemplate));
+        assertEquals(1L, jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR users_seq", Long.class));
+
+        migrate(dataSource, 50);
+        assertEquals(List.of(50L), increments(jdbcTemplate));
+        assertEquals(2L, jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR users_seq", Long.class));
+        assertEquals(52L, jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR users_seq", Long.class));
+    }
+
+    private void migrate(DataSource dataSource, int allocationSize) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .placeholders(Map.of("id_allocation_size", String.valueOf(allocationSize)))
+                .load()
+                .migrate();
+    }
+
+    private List<Long> increments(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForList("SELECT DISTINCT \"INCREMENT\" FROM INFORMATION_SCHEMA.SEQUENCES " +
+                "WHERE SEQUENCE_NAME IN ('USERS_SEQ', 'REQUESTS_SEQ', 'ITEMS_SEQ', 'BOOKINGS_SEQ', 'COMMENTS_SEQ')",
+                Long.class);
+    }
+}
@@ -0,0 +1,108 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * метрики сервисов, репозиториев и числа SQL-запросов на HTTP-запрос
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class MetricsTest {
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * таймеры методов сервисов с вариантом выборки и исходом, таймеры репозиториев
+     */
+    @Test
+    void test55_serviceTimers() {
+        long userId = createUser();
+        long success = serviceCount("findAllByUser", "WAITING", "SUCCESS");
+        long error = serviceCount("findById", "none", "ERROR");
+
+        assertTrue(bookingService.findAllByUser(userId, BookingState.WAITING, 0, 20).isEmpty());
+        assertThrows(NotFoundException.class, () -> bookingService.findById(userId, 999L));
+
+        assertEquals(success + 1, serviceCount("findAllByUser", "WAITING", "SUCCESS"));
+        assertEquals(error + 1, serviceCount("findById", "none", "ERROR"));
+        assertNotNull(meterRegistry.find(ServiceMetricsInterceptor.METRIC)
+                .tags("method", "findById", "exception", "NotFoundException")
+                .timer());
+        assertFalse(meterRegistry.find("spring.data.repository.invocations")
+                .tag("repository", "BookingRepository")
+                .timers()
+                .isEmpty());
+    }
+
+    /**
+     * число SQL-запросов записывается для шаблона пути контроллера (чтение пользователя одним запросом)
+     */
+    @Test
+    void test56_sqlStatementsPerRequest() throws Exception {
+        long userId = createUser();
+        DistributionSummary before = statements();
+        long count = before != null ? before.count() : 0;
+        double total = before != null ? before.totalAmount() : 0;
+
+        mockMvc.perform(get("/users/" + userId)).andExpect(status().isOk());
+
+        DistributionSummary after = statements();
+        assertNotNull(after);
+        assertEquals(count + 1, after.count());
+        assertEquals(total + 1, after.totalAmount());
+    }
+
+    @AfterEach
+    void clearEnvironment() {
+        jdbcTemplate.update("SET REFERENTIAL_INTEGRITY = FALSE");
+        jdbcTemplate.update("TRUNCATE TABLE users");
+        jdbcTemplate.update("ALTER SEQUENCE users_seq RESTART WITH 1");
+        jdbcTemplate.update("SET REFERENTIAL_INTEGRITY = TRUE");
+    }
+
+    private long createUser() {
+        return userService.create(UserDto.builder()
+                .name("Voldemar")
+                .email("voldemar@mail.ru")
+                .build()).getId();
+    }
+
+    private long serviceCount(String method, String state, String outcome) {
+        Timer timer = meterRegistry.find(ServiceMetricsInterceptor.METRIC)
+                .tags("service", "BookingServiceImpl", "method", method, "state", state, "outcome", outcome)
+                .timer();
+        return timer != null ? timer.count() : 0;
+    }
+
+    private DistributionSummary statements() {
+        return meterRegistry.find(SqlStatementMetricsFilter.METRIC)
+                .tags("method", "GET", "uri", "/users/{id}", "status", "200")
+                .summary();
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * тестовый класс передачи выполненных запросов инспектору
+ */
+class QueryInspectorDataSourceTest {
+
+    /**
+     * подготовленное выражение передаётся с текстом из prepareStatement, обычное - с текстом из execute;
+     * остальные вызовы выражения не учитываются
+     */
+    @Test
+    void test57_executions() throws SQLException {
+        DataSource target = Mockito.mock(DataSource.class);
+        Connection connection = Mockito.mock(Connection.class);
+        PreparedStatement prepared = Mockito.mock(PreparedStatement.class);
+        Statement plain = Mockito.mock(Statement.class);
+        Mockito.when(target.getConnection()).thenReturn(connection);
+        Mockito.when(connection.prepareStatement(ArgumentMatchers.anyString())).thenReturn(prepared);
+        Mockito.when(connection.createStatement()).thenReturn(plain);
+        QueryInspector inspector = Mockito.mock(QueryInspector.class);
+        QueryInspectorDataSource dataSource = new QueryInspectorDataSource(target, inspector);
+
+        Connection inspected = dataSource.getConnection();
+        PreparedStatement statement = inspected.prepareStatement("select * from users where id = ?");
+        statement.setLong(1, 1L);
+        statement.executeQuery();
+        statement.setLong(1, 2L);
+        statement.executeQuery();
+        inspected.createStatement().execute("truncate table users");
+        inspected.close();
+
+        Mockito.verify(inspector, Mockito.times(2))
+                .executed(ArgumentMatchers.eq("select * from users where id = ?"), ArgumentMatchers.anyLong());
+        Mockito.verify(inspector).executed(ArgumentMatchers.eq("truncate table users"), ArgumentMatchers.anyLong());
+        Mockito.verifyNoMoreInteractions(inspector);
+        Mockito.verify(prepared).setLong(1, 2L);
+        Mockito.verify(connection).close();
+        assertNotSame(connection, inspected);
+    }
+}
@@ -0,0 +1,107 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * тестовый класс инспектора запросов: каждый запрос считается медленным, повтор - с третьего выполнения
+ */
+@SpringBootTest(properties = {
+        "shareit.queries.slow-threshold=0ms",
+        "shareit.queries.repeat-threshold=3"
+})
+@AutoConfigureMockMvc
+class QueryInspectorTest {
+    @Autowired
+    private QueryInspector inspector;
+    @Autowired
+    private SqlStatementMetricsFilter statements;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * запрос, подготовленный в одном HTTP-запросе не меньше порога раз (по счётчику метрик), отмечается
+     * как повторяющийся
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void test58_repeatedStatements() throws Exception {
+        inspector.reset();
+        for (int request = 0; request < 2; request++) {
+            statements.doFilter(new MockHttpServletRequest("GET", "/items"), new MockHttpServletResponse(),
+                    (servletRequest, servletResponse) -> {
+                        inspector.begin("ItemController.getAllByUserId");
+                        for (int i = 0; i < 4; i++) {
+                            statements.inspect("select * from comments  where item_id = ?");
+                        }
+                        statements.inspect("select * from items where owner_id = ?");
+                        inspector.end();
+                    });
+        }
+
+        List<QueryInspector.Offender> repeated = (List<QueryInspector.Offender>) inspector.report(20).get("repeated");
+        assertEquals(1, repeated.size());
+        QueryInspector.Offender offender = repeated.get(0);
+        assertEquals("ItemController.getAllByUserId", offender.getHandler());
+        assertEquals("select * from comments where item_id = ?", offender.getStatement());
+        assertEquals(2, offender.getOccurrences());
+        assertEquals(4, offender.getMax());
+        assertEquals(8, offender.getTotal());
+    }
+
+    /**
+     * медленные запросы связываются с методом контроллера и доступны в /actuator/queries только для чтения
+     */
+    @Test
+    void test59_slowStatementsEndpoint() throws Exception {
+        inspector.reset();
+        long userId = userService.create(UserDto.builder()
+                .name("Voldemar")
+                .email("voldemar@mail.ru")
+                .build()).getId();
+
+        mockMvc.perform(get("/users/" + userId)).andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/queries"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.slowThresholdMs").value(0))
+                .andExpect(jsonPath("$.repeatThreshold").value(3))
+                .andExpect(jsonPath("$.slow[*].handler").value(hasItem("UserController.getById")))
+                .andExpect(jsonPath("$.slow[*].handler").value(hasItem(QueryInspector.NO_HANDLER)));
+        mockMvc.perform(get("/actuator/queries").param("limit", "1"))
+                .andExpect(jsonPath("$.slow", hasSize(1)));
+        mockMvc.perform(delete("/actuator/queries")).andExpect(status().isMethodNotAllowed());
+        assertFalse(((List<?>) inspector.report(20).get("slow")).isEmpty());
+    }
+
+    @AfterEach
+    void clearEnvironment() {
+        jdbcTemplate.update("SET REFERENTIAL_INTEGRITY = FALSE");
+        jdbcTemplate.update("TRUNCATE TABLE users");
+        jdbcTemplate.update("ALTER SEQUENCE users_seq RESTART WITH 1");
+        jdbcTemplate.update("SET REFERENTIAL_INTEGRITY = TRUE");
+    }
+}
@@ -0,0 +1,107 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.requests.repository.ItemRequestRepository;
+
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * проверка планов выполнения запросов репозиториев: ни один запрос не должен читать таблицу целиком
+ * (H2 в режиме совместимости с PostgreSQL, схема создаётся миграциями Flyway)
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:plans;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                "ru.practicum.shareit.QueryPlanTest$SqlRecorder"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class QueryPlanTest {
+    private final LocalDateTime now = LocalDateTime.now();
+    private final Pageable pageable = OffsetLimitPageable.of(0, 20, Sort.unsorted());
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemRequestRepository requestRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * все запросы выборки бронирований, вещей, комментариев и запросов используют индексы
+     */
+    @Test
+    void test43_repositoryQueriesUseIndexes() {
+        SqlRecorder.STATEMENTS.clear();
+        bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(1L, 1L, BookingStatus.APPROVED, now);
+        bookingRepository.findLastByItemIds(List.of(1L, 2L), now);
+        bookingRepository.findNextByItemIds(List.of(1L, 2L), now);
+        bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(1L,
+                List.of(BookingStatus.WAITING, BookingStatus.APPROVED), now, now);
+        bookingRepository.findPeriodsByItemId(1L, List.of(BookingStatus.WAITING, BookingStatus.APPROVED), now);
+        for (BookingState state : BookingState.values()) {
+            bookingRepository.findAll(1L, null, state, now, pageable);
+            bookingRepository.findAll(null, 1L, state, now, pageable);
+            bookingRepository.findAllAfter(1L, null, state, now, KeysetCursor.of(now, 1L), 20);
+            bookingRepository.findAllAfter(null, 1L, state, now, KeysetCursor.of(now, 1L), 20);
+        }
+        itemRepository.findByOwner_id(1L);
+        itemRepository.findByOwner_id(1L, OffsetLimitPageable.of(0, 20, Sort.by(Sort.Direction.ASC, "id")));
+        itemRepository.findByOwner_idAfter(1L, 1L, OffsetLimitPageable.of(0, 20, Sort.by(Sort.Direction.ASC, "id")));
+        itemRepository.findAllForRequests(List.of(1L, 2L));
+        itemRepository.existsByIdAndOwnerId(1L, 1L);
+        commentRepository.findByItemId(1L);
+        commentRepository.findAllByItemIds(List.of(1L, 2L));
+        requestRepository.findItemRequestByRequester_IdOrderByCreatedDesc(1L);
+        requestRepository.findAllAfter(1L, now, 1L, OffsetLimitPageable.of(0, 20));
+
+        Set<String> statements = new LinkedHashSet<>(SqlRecorder.STATEMENTS);
+        List<String> scans = new ArrayList<>();
+        for (String sql : statements) {
+            String plan = jdbcTemplate.query(connection -> connection.prepareStatement("EXPLAIN " + sql),
+                    (ResultSet rs) -> rs.next() ? rs.getString(1) : null);
+            if (plan != null && plan.contains(".tableScan")) {
+                scans.add(plan);
+            }
+        }
+        assertTrue(statements.size() > 20);
+        assertTrue(scans.isEmpty(), () -> "Queries without index:\n" + String.join("\n\n", scans));
+    }
+
+    /**
+     * перехватчик, запоминающий текст выполняемых запросов выборки
+     */
+    public static class SqlRecorder implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.trim().toLowerCase().startsWith("select")) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+    }
+}
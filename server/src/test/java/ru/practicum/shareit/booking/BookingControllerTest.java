@@ -10,6 +10,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.controller.BookingController;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreatingBookingDto;
 import ru.practicum.shareit.booking.model.BookingStatus;
@@ -144,7 +145,7 @@ public class BookingControllerTest {
     void test19_findAllByUser() throws Exception {
 
         Mockito
-                .when(bookingService.findAllByUser(anyLong(), any(), any(), any()))
+                .when(bookingService.findAllByUser(anyLong(), any(), any(), any(), any()))
                 .thenReturn(List.of(bookingDto));
 
         mvc.perform(get("/bookings?from=2&size=2")
@@ -167,7 +168,7 @@ public class BookingControllerTest {
     void test20_findAllByOwner() throws Exception {
 
         Mockito
-                .when(bookingService.findAllByOwner(anyLong(), any(), any(), any()))
+                .when(bookingService.findAllByOwner(anyLong(), any(), any(), any(), any()))
                 .thenReturn(List.of(bookingDto));
 
         mvc.perform(get("/bookings/owner?from=2&size=2")
@@ -182,4 +183,26 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$[0].status", is("WAITING")))
                 .andExpect(jsonPath("$[0].item.description", is(bookingDto.getItem().getDescription()), String.class));
     }
-}
\ No newline at end of file
+
+    /**
+     * тест изменения статуса набора бронирований
+     */
+    @Test
+    void test60_approveAll() throws Exception {
+        Mockito
+                .when(bookingService.approveAll(1L, true, List.of(1L, 2L)))
+                .thenReturn(List.of(new BookingApprovalDto(1L, BookingStatus.APPROVED, null),
+                        new BookingApprovalDto(2L, null, "This booking not found")));
+
+        mvc.perform(patch("/bookings?approved=true")
+                        .header("X-Sharer-User-Id", 1)
+                        .content(mapper.writeValueAsString(List.of(1L, 2L)))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bookingId", is(1L), Long.class))
+                .andExpect(jsonPath("$[0].status", is("APPROVED")))
+                .andExpect(jsonPath("$[1].bookingId", is(2L), Long.class))
+                .andExpect(jsonPath("$[1].error", is("This booking not found")));
+    }
+}
@@ -0,0 +1,161 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingExportDto;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemExportDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * тестовый класс выгрузки бронирований и вещей в формате NDJSON
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingExportTest {
+    private static final int PAST_BOOKINGS = 1200;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper mapper;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long ownerId;
+    private long bookerId;
+    private ItemDto drill;
+
+    /**
+     * выгрузка бронирований автора и владельца: все строки в порядке убывания даты начала, в том числе
+     * больше одной порции курсора
+     */
+    @Test
+    void test65_exportBookings() throws Exception {
+        List<BookingExportDto> all = read(mockMvc.perform(get("/bookings/export")
+                        .header("X-Sharer-User-Id", bookerId))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8), BookingExportDto.class);
+        assertEquals(PAST_BOOKINGS + 1, all.size());
+        BookingExportDto future = all.get(0);
+        assertEquals(BookingStatus.WAITING, future.getStatus());
+        assertEquals(drill.getId(), future.getItemId());
+        assertEquals("Дрель", future.getItemName());
+        assertEquals(bookerId, future.getBookerId());
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i).getStart().isBefore(all.get(i - 1).getStart()));
+        }
+
+        List<BookingExportDto> waiting = read(mockMvc.perform(get("/bookings/export")
+                        .header("X-Sharer-User-Id", bookerId)
+                        .param("state", "WAITING"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8), BookingExportDto.class);
+        assertEquals(List.of(future), waiting);
+
+        List<BookingExportDto> owned = read(mockMvc.perform(get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", ownerId)
+                        .param("state", "PAST"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8), BookingExportDto.class);
+        assertEquals(all.subList(1, all.size()), owned);
+
+        mockMvc.perform(get("/bookings/owner/export").header("X-Sharer-User-Id", bookerId))
+                .andExpect(status().isOk())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/bookings/export").header("X-Sharer-User-Id", bookerId + 100))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * выгрузка вещей владельца в порядке id
+     */
+    @Test
+    void test66_exportItems() throws Exception {
+        ItemDto saw = itemService.create(ownerId, ItemDto.builder()
+                .name("Пила")
+                .description("Ручная пила")
+                .available(false)
+                .build());
+
+        List<ItemExportDto> items = read(mockMvc.perform(get("/items/export")
+                        .header("X-Sharer-User-Id", ownerId))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8), ItemExportDto.class);
+        assertEquals(List.of(
+                new ItemExportDto(drill.getId(), "Дрель", "Простая дрель", true, null),
+                new ItemExportDto(saw.getId(), "Пила", "Ручная пила", false, null)), items);
+
+        mockMvc.perform(get("/items/export").header("X-Sharer-User-Id", ownerId + 100))
+                .andExpect(status().isNotFound());
+    }
+
+    @BeforeEach
+    void createEnvironment() {
+        ownerId = userService.create(UserDto.builder().name("Voldemar").email("voldemar@mail.ru").build()).getId();
+        bookerId = userService.create(UserDto.builder().name("Vika").email("vika@mail.ru").build()).getId();
+        drill = itemService.create(ownerId, ItemDto.builder()
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .build());
+        LocalDateTime start = LocalDateTime.now().minusDays(PAST_BOOKINGS + 1);
+        List<Object[]> bookings = new ArrayList<>();
+        for (int i = 0; i < PAST_BOOKINGS; i++) {
+            bookings.add(new Object[]{start.plusDays(i), start.plusDays(i).plusHours(1), drill.getId(), bookerId,
+                    BookingStatus.APPROVED.name()});
+        }
+        bookings.add(new Object[]{LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), drill.getId(),
+                bookerId, BookingStatus.WAITING.name()});
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (start_date, end_date, item_id, booker_id, status) " +
+                "VALUES (?, ?, ?, ?, ?)", bookings);
+    }
+
+    @AfterEach
+    void clearEnvironment() {
+        jdbcTemplate.update("SET REFERENTIAL_INTEGRITY = FALSE");
+        for (String table : List.of("users", "bookings", "items")) {
+            jdbcTemplate.update("TRUNCATE TABLE " + table);
+            jdbcTemplate.update("ALTER SEQUENCE " + table + "_seq RESTART WITH 1");
+        }
+        jdbcTemplate.update("SET REFERENTIAL_INTEGRITY = TRUE");
+    }
+
+    private <T> List<T> read(String body, Class<T> type) throws Exception {
+        List<T> result = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            if (!line.isEmpty()) {
+                result.add(mapper.readValue(line, type));
+            }
+        }
+        return result;
+    }
+}
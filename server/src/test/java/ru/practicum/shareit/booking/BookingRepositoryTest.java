@@ -7,10 +7,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.OffsetLimitPageable;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.item.model.Item;
@@ -69,7 +71,8 @@ public class BookingRepositoryTest {
     @Test
     void test12_findAllByOwnerIdOrderByEndDesc() {
 
-        List<Booking> bookings = bookingRepository.findAllByItemOwnerIdOrderByStartDesc(user.getId(), pageable).stream()
+        List<Booking> bookings = bookingRepository.findAll(null, user.getId(), BookingState.ALL, LocalDateTime.now(),
+                        pageable).stream()
                 .collect(Collectors.toList());
         Assertions.assertEquals(1, bookings.size());
         Assertions.assertEquals(booking, bookings.get(0));
@@ -81,8 +84,8 @@ public class BookingRepositoryTest {
     @Test
     void test13_findAllByOwnerIdAndStatusOrderByEndDesc() {
 
-        List<Booking> bookings = bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDesc(user.getId(),
-                BookingStatus.APPROVED, pageable).stream().collect(Collectors.toList());
+        List<Booking> bookings = bookingRepository.findAll(null, user.getId(),
+                BookingState.FUTURE, LocalDateTime.now(), pageable).stream().collect(Collectors.toList());
         Assertions.assertEquals(1, bookings.size());
         Assertions.assertEquals(booking, bookings.get(0));
     }
@@ -92,7 +95,8 @@ public class BookingRepositoryTest {
      */
     @Test
     void test14_findAllByBookerIdOrderByStartDesc() {
-        List<Booking> bookings = bookingRepository.findAllByBookerIdOrderByStartDesc(user1.getId(), pageable).stream()
+        List<Booking> bookings = bookingRepository.findAll(user1.getId(), null, BookingState.ALL, LocalDateTime.now(),
+                        pageable).stream()
                 .collect(Collectors.toList());
         Assertions.assertEquals(1, bookings.size());
         Assertions.assertEquals(booking, bookings.get(0));
@@ -104,10 +108,34 @@ public class BookingRepositoryTest {
     @Test
     void test15_findAllByBookerIdAndStatusOrderByStartDesc() {
 
-        List<Booking> bookings = bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(user1.getId(),
-                BookingStatus.APPROVED, pageable).stream().collect(Collectors.toList());
+        List<Booking> bookings = bookingRepository.findAll(user1.getId(), null,
+                BookingState.FUTURE, LocalDateTime.now(), pageable).stream().collect(Collectors.toList());
         Assertions.assertEquals(1, bookings.size());
         Assertions.assertEquals(booking, bookings.get(0));
     }
 
+    /**
+     * срез бронирований сообщает о следующей странице без отдельного запроса количества
+     */
+    @Test
+    void test50_findAllSlice() {
+        Booking next = new Booking();
+        next.setStart(booking.getStart().plusDays(5));
+        next.setEnd(booking.getEnd().plusDays(5));
+        next.setItem(item);
+        next.setBooker(user1);
+        next.setStatus(BookingStatus.WAITING);
+        em.persist(next);
+        Slice<Booking> first = bookingRepository.findAll(user1.getId(), null, BookingState.ALL,
+                LocalDateTime.now(), OffsetLimitPageable.of(0, 1));
+        Assertions.assertEquals(List.of(next), first.getContent());
+        Assertions.assertTrue(first.hasNext());
+        Slice<Booking> second = bookingRepository.findAll(null, user.getId(), BookingState.ALL,
+                LocalDateTime.now(), OffsetLimitPageable.of(1, 1));
+        Assertions.assertEquals(List.of(booking), second.getContent());
+        Assertions.assertFalse(second.hasNext());
+        Assertions.assertTrue(bookingRepository.findAll(user1.getId(), null, BookingState.REJECTED,
+                LocalDateTime.now(), pageable).isEmpty());
+    }
+
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package ru.practicum.shareit.booking;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -7,8 +9,12 @@ import org.junit.jupiter.api.TestInstance;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ConcurrentCalls;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreatingBookingDto;
+import ru.practicum.shareit.booking.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
@@ -19,16 +25,21 @@ import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.persistence.EntityManagerFactory;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * тестовый класс сервиса бронирований
  */
-@SpringBootTest
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 public class BookingServiceImplTest {
     final LocalDateTime start = LocalDateTime.now().withSecond(0).withNano(0).plusDays(1);
@@ -46,6 +57,8 @@ public class BookingServiceImplTest {
     @Autowired
     private BookingService bookingService;
     @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
     private JdbcTemplate jdbcTemplate;
 
     /**
@@ -218,6 +231,178 @@ public class BookingServiceImplTest {
         assertEquals(2, list.get(0).getId());
     }
 
+    /**
+     * постраничная выборка бронирований по курсору
+     */
+    @Test
+    void test41_findAllWithCursor() {
+        createBookings();
+        List<BookingDto> firstPage = bookingService.findAllByUser(2L, BookingState.ALL, 0, 2, null);
+        assertEquals(List.of(2L, 1L), firstPage.stream().map(BookingDto::getId).collect(Collectors.toList()));
+        KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.of(firstPage.get(1).getStart(),
+                firstPage.get(1).getId()).encode());
+        List<BookingDto> secondPage = bookingService.findAllByUser(2L, BookingState.ALL, 0, 2, cursor);
+        assertEquals(List.of(4L, 3L), secondPage.stream().map(BookingDto::getId).collect(Collectors.toList()));
+        cursor = KeysetCursor.of(secondPage.get(1).getStart(), secondPage.get(1).getId());
+        assertTrue(bookingService.findAllByUser(2L, BookingState.ALL, 0, 2, cursor).isEmpty());
+        List<BookingDto> waiting = bookingService.findAllByOwner(1L, BookingState.WAITING, 0, 2,
+                KeysetCursor.of(firstPage.get(0).getStart(), firstPage.get(0).getId()));
+        assertEquals(List.of(1L, 3L), waiting.stream().map(BookingDto::getId).collect(Collectors.toList()));
+        Throwable thrown = assertThrows(CursorValidateException.class, () ->
+                bookingService.findAllByOwner(1L, BookingState.ALL, 0, 2, KeysetCursor.decode("bm90LWEtY3Vyc29y")));
+        assertEquals("Invalid cursor: bm90LWEtY3Vyc29y", thrown.getMessage());
+    }
+
+    /**
+     * создание бронирования, пересекающегося с существующим
+     */
+    @Test
+    void test39_createOverlapping() {
+        bookingService.create(2L, creatingDto);
+        UserDto user = UserDto.builder()
+                .name("Vika")
+                .email("vika@mail.ru")
+                .build();
+        userService.create(user);
+        CreatingBookingDto overlapping = CreatingBookingDto.builder()
+                .itemId(1L)
+                .start(start.plusHours(12))
+                .end(end.plusHours(12))
+                .build();
+        Throwable thrown = assertThrows(BookingOverlapException.class, () -> bookingService.create(3L, overlapping));
+        assertEquals("This item is already booked for this period", thrown.getMessage());
+        bookingService.approve(1L, false, 1L);
+        BookingDto dto = bookingService.create(3L, overlapping);
+        assertEquals(2, dto.getId());
+        CreatingBookingDto adjacent = CreatingBookingDto.builder()
+                .itemId(1L)
+                .start(end.plusHours(12))
+                .end(end.plusDays(1))
+                .build();
+        dto = bookingService.create(2L, adjacent);
+        assertEquals(3, dto.getId());
+    }
+
+    /**
+     * проверка доступности вещи на период
+     */
+    @Test
+    void test40_getAvailability() {
+        bookingService.create(2L, creatingDto);
+        ItemAvailabilityDto dto = itemService.getAvailability(1L, 2L, start.minusHours(6), start.plusHours(6));
+        assertFalse(dto.isAvailable());
+        assertEquals(1, dto.getBusy().size());
+        assertEquals(start, dto.getBusy().get(0).getStart());
+        assertEquals(end, dto.getNextFreeStart());
+        dto = itemService.getAvailability(1L, 2L, start.minusHours(6), start);
+        assertTrue(dto.isAvailable());
+        assertEquals(start.minusHours(6), dto.getNextFreeStart());
+        Throwable thrown = assertThrows(EndDateValidateException.class, () ->
+                itemService.getAvailability(1L, 2L, end, start));
+        assertEquals("EndDate is before StartDate", thrown.getMessage());
+        assertThrows(EndDateValidateException.class, () -> itemService.getAvailability(1L, 2L, start, start));
+        thrown = assertThrows(NotFoundException.class, () ->
+                itemService.getAvailability(99L, 2L, start, end));
+        assertNotNull(thrown.getMessage());
+        itemService.update(1L, 1L, ItemUpdate.builder().available(false).build());
+        dto = itemService.getAvailability(1L, 2L, end, end.plusDays(1));
+        assertFalse(dto.isAvailable());
+        assertNull(dto.getNextFreeStart());
+    }
+
+    /**
+     * создание бронирования: пользователь, вещь с блокировкой, проверка пересечения, id из bookings_seq
+     * (в профиле test блок id из одного значения) и одна вставка
+     */
+    @Test
+    void test47_createStatementCount() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        BookingDto dto = bookingService.create(2L, creatingDto);
+        assertEquals(5, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityUpdateCount());
+        assertEquals(1, dto.getItem().getOwner());
+        assertEquals(2, dto.getBooker().getId());
+    }
+
+    /**
+     * из одновременных бронирований вещи на один период создаётся только одно
+     */
+    @Test
+    void test73_concurrentCreate() throws Exception {
+        assertEquals(1, ConcurrentCalls.run(i -> bookingService.create(2L, CreatingBookingDto.builder()
+                .itemId(1L)
+                .start(start.plusHours(i))
+                .end(end)
+                .build())));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings WHERE item_id = 1",
+                Integer.class));
+    }
+
+    /**
+     * выборка бронирований пользователя и владельца по любому варианту - проверка пользователя и один запрос
+     */
+    @Test
+    void test51_findAllStatementCount() {
+        createBookings();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (BookingState state : BookingState.values()) {
+            statistics.clear();
+            bookingService.findAllByUser(2L, state, 0, 10).forEach(dto -> assertEquals(1, dto.getItem().getOwner()));
+            assertEquals(2, statistics.getPrepareStatementCount(), state.name());
+            statistics.clear();
+            bookingService.findAllByOwner(1L, state, 0, 10).forEach(dto -> assertEquals(2, dto.getBooker().getId()));
+            assertEquals(2, statistics.getPrepareStatementCount(), state.name());
+        }
+    }
+
+    /**
+     * изменение статуса набора бронирований: проверка пользователя, одна выборка и одно обновление;
+     * ошибки по отдельным бронированиям возвращаются в результате, повторяющиеся id учитываются один раз
+     */
+    @Test
+    void test61_approveAll() {
+        itemService.create(2L, ItemDto.builder()
+                .name("Лодка")
+                .description("Нырок")
+                .available(true)
+                .comments(new HashSet<>())
+                .build());
+        bookingService.create(2L, creatingDto);
+        bookingService.create(2L, CreatingBookingDto.builder()
+                .itemId(1L)
+                .start(end.plusDays(1))
+                .end(end.plusDays(2))
+                .build());
+        bookingService.create(1L, CreatingBookingDto.builder()
+                .itemId(2L)
+                .start(start)
+                .end(end)
+                .build());
+        bookingService.approve(1L, false, 2L);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<BookingApprovalDto> results = bookingService.approveAll(1L, true, List.of(1L, 2L, 3L, 99L, 1L));
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(List.of(1L, 2L, 3L, 99L), results.stream()
+                .map(BookingApprovalDto::getBookingId)
+                .collect(Collectors.toList()));
+        assertEquals(new BookingApprovalDto(1L, BookingStatus.APPROVED, null), results.get(0));
+        assertEquals(new BookingApprovalDto(2L, BookingStatus.REJECTED, "You have already replied to this booking"),
+                results.get(1));
+        assertEquals(new BookingApprovalDto(3L, BookingStatus.WAITING, "You are not item owner"), results.get(2));
+        assertEquals(new BookingApprovalDto(99L, null, "This booking not found"), results.get(3));
+
+        assertEquals(BookingStatus.APPROVED, bookingService.findById(1L, 1L).getStatus());
+        assertEquals(BookingStatus.REJECTED, bookingService.findById(1L, 2L).getStatus());
+        assertEquals(BookingStatus.WAITING, bookingService.findById(2L, 3L).getStatus());
+        assertEquals(BookingStatus.REJECTED, bookingService.approveAll(2L, false, List.of(3L)).get(0).getStatus());
+        assertTrue(bookingService.approveAll(1L, true, List.of()).isEmpty());
+        assertThrows(NotFoundException.class, () -> bookingService.approveAll(3L, true, List.of(1L)));
+    }
+
     /**
      * создание окружения
      */
@@ -251,15 +436,15 @@ public class BookingServiceImplTest {
         jdbcTemplate.update(query);
         query = "TRUNCATE TABLE users ";
         jdbcTemplate.update(query);
-        query = "ALTER TABLE users ALTER COLUMN id RESTART WITH 1";
+        query = "ALTER SEQUENCE users_seq RESTART WITH 1";
         jdbcTemplate.update(query);
         query = "TRUNCATE TABLE items ";
         jdbcTemplate.update(query);
-        query = "ALTER TABLE items ALTER COLUMN id RESTART WITH 1";
+        query = "ALTER SEQUENCE items_seq RESTART WITH 1";
         jdbcTemplate.update(query);
         query = "TRUNCATE TABLE bookings ";
         jdbcTemplate.update(query);
-        query = "ALTER TABLE bookings ALTER COLUMN id RESTART WITH 1";
+        query = "ALTER SEQUENCE bookings_seq RESTART WITH 1";
         jdbcTemplate.update(query);
         query = "SET REFERENTIAL_INTEGRITY = TRUE";
         jdbcTemplate.update(query);
@@ -285,6 +470,7 @@ public class BookingServiceImplTest {
         start1 = LocalDateTime.now().minusDays(2);
         LocalDateTime end1 = LocalDateTime.now().minusDays(1);
         creatingDto.setStart(start1);
+        creatingDto.setEnd(start);
         bookingService.create(2L, creatingDto);
         creatingDto.setItemId(1L);
         creatingDto.setEnd(end1);
@@ -273,7 +273,7 @@ class ItemControllerTest {
                 .start(start)
                 .end(end)
                 .build();
-        bookingService.create(2L, creatingDto);
+        bookingService.approve(1L, true, bookingService.create(2L, creatingDto).getId());
         String commentDto = "{\"text\": \"Comment for item 1\"}";
         this.mockMvc.perform(post("/items/1/comment").header("X-Sharer-User-Id", 2)
                         .content(commentDto)
@@ -294,7 +294,7 @@ class ItemControllerTest {
     @BeforeAll
     void createEnvironment() throws Exception {
         clear();
-        String query = "ALTER TABLE users ALTER COLUMN id RESTART WITH 1";
+        String query = "ALTER SEQUENCE users_seq RESTART WITH 1";
         jdbcTemplate.update(query);
         this.mockMvc.perform(post("/users").content(mapper.writeValueAsString(user))
                         .contentType(MediaType.APPLICATION_JSON))
@@ -312,7 +312,7 @@ class ItemControllerTest {
         jdbcTemplate.update(query);
         query = "TRUNCATE TABLE users ";
         jdbcTemplate.update(query);
-        query = "ALTER TABLE users ALTER COLUMN id RESTART WITH 1";
+        query = "ALTER SEQUENCE users_seq RESTART WITH 1";
         jdbcTemplate.update(query);
         query = "SET REFERENTIAL_INTEGRITY = TRUE";
         jdbcTemplate.update(query);
@@ -332,10 +332,10 @@ class ItemControllerTest {
     }
 
     /**
-     * сброс автоинкремента в таблице items
+     * сброс последовательности id в таблице items
      */
     private void clear() {
-        String query = "ALTER TABLE items ALTER COLUMN id RESTART WITH 1";
+        String query = "ALTER SEQUENCE items_seq RESTART WITH 1";
         jdbcTemplate.update(query);
     }
 }
\ No newline at end of file
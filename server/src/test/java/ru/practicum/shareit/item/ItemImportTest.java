@@ -0,0 +1,163 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.requests.dto.CreatedItemRequestDto;
+import ru.practicum.shareit.requests.service.ItemRequestService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * тестовый класс массового импорта вещей
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemImportTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper mapper;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemRequestService requestService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long ownerId;
+    private long requestId;
+
+    /**
+     * импорт JSON-массива: вещи получают владельца из заголовка и запрос по requestId
+     */
+    @Test
+    void test62_importJsonArray() throws Exception {
+        String body = mapper.writeValueAsString(List.of(item(1, null), item(2, requestId), item(3, null)));
+
+        mockMvc.perform(importRequest(ownerId, MediaType.APPLICATION_JSON, body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(3));
+
+        List<ItemDto> items = itemService.getAllByUserId(ownerId, 0, 10);
+        assertEquals(List.of("item 1", "item 2", "item 3"),
+                items.stream().map(ItemDto::getName).collect(Collectors.toList()));
+        assertNull(items.get(0).getRequestId());
+        assertEquals(requestId, items.get(1).getRequestId());
+        assertEquals(ownerId, items.get(2).getOwner());
+    }
+
+    /**
+     * импорт NDJSON из нескольких частей
+     */
+    @Test
+    void test63_importNdjson() throws Exception {
+        String body = IntStream.rangeClosed(1, 1201)
+                .mapToObj(i -> write(item(i, i % 10 == 0 ? requestId : null)))
+                .collect(Collectors.joining("\n"));
+
+        mockMvc.perform(importRequest(ownerId, MediaType.APPLICATION_NDJSON, body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1201));
+
+        assertEquals(1201, count("SELECT COUNT(*) FROM items WHERE owner_id = " + ownerId));
+        assertEquals(120, count("SELECT COUNT(*) FROM items WHERE request_id = " + requestId));
+        assertEquals(1201, count("SELECT COUNT(DISTINCT id) FROM items"));
+    }
+
+    /**
+     * ошибка в любой вещи отменяет импорт целиком
+     */
+    @Test
+    void test64_importRollback() throws Exception {
+        String blankName = write(item(1, null)) + "\n" + write(item(2, null)).replace("item 2", " ");
+        mockMvc.perform(importRequest(ownerId, MediaType.APPLICATION_NDJSON, blankName))
+                .andExpect(status().isBadRequest())
+                .andExpect(result -> assertEquals("Item #2: name can not is blank",
+                        result.getResolvedException().getMessage()));
+
+        String unknownRequest = mapper.writeValueAsString(List.of(item(1, null), item(2, requestId + 100)));
+        mockMvc.perform(importRequest(ownerId, MediaType.APPLICATION_JSON, unknownRequest))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(importRequest(ownerId, MediaType.APPLICATION_JSON, "[" + write(item(1, null)) + ", {"))
+                .andExpect(status().isBadRequest())
+                .andExpect(result -> assertTrue(result.getResolvedException().getMessage()
+                        .startsWith("Item #2: ")));
+
+        mockMvc.perform(importRequest(ownerId + 100, MediaType.APPLICATION_JSON, "[]"))
+                .andExpect(status().isNotFound());
+
+        assertEquals(0, count("SELECT COUNT(*) FROM items"));
+    }
+
+    @BeforeEach
+    void createEnvironment() {
+        ownerId = userService.create(UserDto.builder().name("Voldemar").email("voldemar@mail.ru").build()).getId();
+        long requesterId = userService.create(UserDto.builder().name("Vika").email("vika@mail.ru").build()).getId();
+        CreatedItemRequestDto request = new CreatedItemRequestDto();
+        request.setDescription("Нужна дрель");
+        requestId = requestService.create(requesterId, request).getId();
+    }
+
+    @AfterEach
+    void clearEnvironment() {
+        jdbcTemplate.update("SET REFERENTIAL_INTEGRITY = FALSE");
+        for (String table : List.of("users", "requests", "items")) {
+            jdbcTemplate.update("TRUNCATE TABLE " + table);
+            jdbcTemplate.update("ALTER SEQUENCE " + table + "_seq RESTART WITH 1");
+        }
+        jdbcTemplate.update("SET REFERENTIAL_INTEGRITY = TRUE");
+    }
+
+    private static ItemDto item(int number, Long requestId) {
+        return ItemDto.builder()
+                .name("item " + number)
+                .description("thing " + number)
+                .available(true)
+                .requestId(requestId)
+                .build();
+    }
+
+    private static MockHttpServletRequestBuilder importRequest(long userId, MediaType type, String body) {
+        return post("/items/import")
+                .header("X-Sharer-User-Id", userId)
+                .contentType(type)
+                .content(body);
+    }
+
+    private String write(ItemDto dto) {
+        try {
+            return mapper.writeValueAsString(dto);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
@@ -0,0 +1,208 @@
+package ru.practicum.shareit.item;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.KeysetCursor;
+import ru.practicum.shareit.booking.dto.CreatingBookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.CommentatorValidationException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * тестовый класс сервиса вещей
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ItemServiceImplTest {
+    private static final int ITEMS_COUNT = 10;
+    private final LocalDateTime now = LocalDateTime.now().withNano(0);
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * количество запросов при получении вещей владельца не зависит от размера страницы
+     */
+    @Test
+    void test38_getAllByUserIdQueryCount() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<ItemDto> smallPage = itemService.getAllByUserId(1L, 0, 2);
+        long smallPageStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+        List<ItemDto> fullPage = itemService.getAllByUserId(1L, 0, ITEMS_COUNT);
+        long fullPageStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(2, smallPage.size());
+        assertEquals(ITEMS_COUNT, fullPage.size());
+        assertEquals(smallPageStatements, fullPageStatements);
+        for (ItemDto dto : fullPage) {
+            assertNotNull(dto.getLastBooking());
+            assertNotNull(dto.getNextBooking());
+            assertEquals(dto.getId(), dto.getLastBooking().getItemId());
+            assertEquals(dto.getId(), dto.getNextBooking().getItemId());
+            assertTrue(dto.getLastBooking().getStart().isBefore(now));
+            assertTrue(dto.getNextBooking().getStart().isAfter(now));
+            assertEquals(1, dto.getComments().size());
+        }
+    }
+
+    /**
+     * постраничная выборка вещей владельца по курсору
+     */
+    @Test
+    void test42_getAllByUserIdWithCursor() {
+        List<ItemDto> firstPage = itemService.getAllByUserId(1L, 0, 4, null);
+        List<ItemDto> secondPage = itemService.getAllByUserId(1L, 0, 4,
+                KeysetCursor.of(firstPage.get(firstPage.size() - 1).getId()));
+        List<ItemDto> offsetPage = itemService.getAllByUserId(1L, 4, 4);
+
+        assertEquals(4, secondPage.size());
+        assertEquals(5, secondPage.get(0).getId());
+        for (int i = 0; i < secondPage.size(); i++) {
+            assertEquals(offsetPage.get(i).getId(), secondPage.get(i).getId());
+            assertNotNull(secondPage.get(i).getLastBooking());
+        }
+    }
+
+    /**
+     * владелец видит в вещи последнее и следующее бронирования, остальные пользователи - нет
+     */
+    @Test
+    void test49_getByIdBookings() {
+        ItemDto ownerView = itemService.getById(1L, 1L);
+        assertNotNull(ownerView.getLastBooking());
+        assertNotNull(ownerView.getNextBooking());
+        assertEquals(now.minusDays(3), ownerView.getLastBooking().getStart());
+        assertEquals(now.plusDays(2), ownerView.getNextBooking().getStart());
+        assertEquals(2, ownerView.getLastBooking().getBookerId());
+
+        ItemDto bookerView = itemService.getById(1L, 2L);
+        assertNull(bookerView.getLastBooking());
+        assertNull(bookerView.getNextBooking());
+        assertEquals(1, bookerView.getComments().size());
+    }
+
+    /**
+     * комментарий оставляет только автор завершённого подтверждённого бронирования вещи
+     */
+    @Test
+    void test71_commentEligibility() {
+        long petr = userService.create(UserDto.builder().name("Petr").email("petr@mail.ru").build()).getId();
+        CommentDto comment = CommentDto.builder().text("Comment").build();
+        long waiting = bookingService.create(petr, booking(now.minusDays(7), now.minusDays(6))).getId();
+        assertThrows(CommentatorValidationException.class, () -> itemService.addComment(petr, 1L, comment));
+        bookingService.approve(1L, false, bookingService.create(petr, booking(now.minusDays(5), now.minusDays(4)))
+                .getId());
+        assertThrows(CommentatorValidationException.class, () -> itemService.addComment(petr, 1L, comment));
+        bookingService.approve(1L, true, bookingService.create(petr, booking(now.minusHours(1), now.plusHours(1)))
+                .getId());
+        assertThrows(CommentatorValidationException.class, () -> itemService.addComment(petr, 1L, comment));
+        assertThrows(CommentatorValidationException.class, () -> itemService.addComment(petr, 2L, comment));
+
+        bookingService.approve(1L, true, waiting);
+        assertEquals("Comment", itemService.addComment(petr, 1L, comment).getText());
+    }
+
+    /**
+     * при создании вещи владелец и запрос не читаются из БД, несуществующий запрос - ошибка поиска
+     */
+    @Test
+    void test78_createWithReferences() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        ItemDto created = itemService.create(2L, ItemDto.builder().name("Дрель").description("Bosch")
+                .available(true).build());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(2L, itemService.getById(created.getId(), 2L).getOwner());
+        assertThrows(NotFoundException.class, () -> itemService.create(2L, ItemDto.builder().name("Пила")
+                .description("Makita").available(true).requestId(100L).build()));
+    }
+
+    /**
+     * создание окружения
+     */
+    @BeforeEach
+    void createEnvironment() {
+        clearEnvironment();
+        UserDto user = UserDto.builder()
+                .name("Voldemar")
+                .email("voldemar@mail.ru")
+                .build();
+        userService.create(user);
+        user.setName("Ivan");
+        user.setEmail("ivan@ivan.ru");
+        userService.create(user);
+        for (int i = 0; i < ITEMS_COUNT; i++) {
+            ItemDto itemDto = ItemDto.builder()
+                    .name("Машина " + i)
+                    .description("Audi TT")
+                    .available(true)
+                    .owner(1)
+                    .comments(new HashSet<>())
+                    .build();
+            long itemId = itemService.create(1L, itemDto).getId();
+            bookingService.approve(1L, true, bookingService.create(2L, CreatingBookingDto.builder()
+                    .itemId(itemId)
+                    .start(now.minusDays(3))
+                    .end(now.minusDays(2))
+                    .build()).getId());
+            bookingService.create(2L, CreatingBookingDto.builder()
+                    .itemId(itemId)
+                    .start(now.plusDays(2))
+                    .end(now.plusDays(3))
+                    .build());
+            itemService.addComment(2L, itemId, CommentDto.builder().text("Comment " + i).build());
+        }
+    }
+
+    /**
+     * очистка окружения
+     */
+    @AfterEach
+    void clearEnvironment() {
+        jdbcTemplate.update("SET REFERENTIAL_INTEGRITY = FALSE");
+        for (String table : List.of("users", "bookings", "comments", "items")) {
+            jdbcTemplate.update("TRUNCATE TABLE " + table);
+            jdbcTemplate.update("ALTER SEQUENCE " + table + "_seq RESTART WITH 1");
+        }
+        jdbcTemplate.update("SET REFERENTIAL_INTEGRITY = TRUE");
+    }
+
+    private CreatingBookingDto booking(LocalDateTime start, LocalDateTime end) {
+        return CreatingBookingDto.builder()
+                .itemId(1L)
+                .start(start)
+                .end(end)
+                .build();
+    }
+}
@@ -122,7 +122,7 @@ public class ItemRequestControllerTest {
     @Test
     void test31_findAllOnPage() throws Exception {
         Mockito
-                .when(service.findAllOnPage(anyLong(), any(), any()))
+                .when(service.findAllOnPage(anyLong(), any(), any(), any()))
                 .thenReturn(List.of(dto));
 
         mvc.perform(get("/requests/all?from=0&size=20")
@@ -1,5 +1,7 @@
 package ru.practicum.shareit.reqest;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,6 +19,8 @@ import ru.practicum.shareit.requests.service.ItemRequestService;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 import java.util.HashSet;
 import java.util.List;
 
@@ -25,7 +29,10 @@ import static org.junit.jupiter.api.Assertions.*;
 /**
  * тестовый класс сервиса запросов
  */
-@SpringBootTest
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 public class ItemRequestServiceTest {
 
@@ -38,6 +45,10 @@ public class ItemRequestServiceTest {
     private UserService userService;
     @Autowired
     private ItemService itemService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private EntityManager entityManager;
 
     /**
      * создание запроса
@@ -156,6 +167,43 @@ public class ItemRequestServiceTest {
         assertEquals(0, list.get(0).getItems().size());
     }
 
+    /**
+     * количество запросов при получении страницы запросов с вещами не зависит от размера страницы (отложенные
+     * вставки окружения выполняются до замера)
+     */
+    @Test
+    @Transactional
+    void test48_findAllOnPageQueryCount() {
+        for (int i = 1; i <= 5; i++) {
+            createdDto.setDescription("test" + i);
+            long requestId = service.create(2L, createdDto).getId();
+            itemService.create(1, ItemDto.builder()
+                    .name("Машина " + i)
+                    .description("Audi TT")
+                    .available(true)
+                    .requestId(requestId)
+                    .comments(new HashSet<>())
+                    .build());
+        }
+        entityManager.flush();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<ItemRequestDto> smallPage = service.findAllOnPage(1L, 0, 1);
+        long smallPageStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+        List<ItemRequestDto> fullPage = service.findAllOnPage(1L, 0, 5);
+        long fullPageStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(1, smallPage.size());
+        assertEquals(5, fullPage.size());
+        assertEquals(smallPageStatements, fullPageStatements);
+        for (ItemRequestDto dto : fullPage) {
+            assertEquals(1, dto.getItems().size());
+            assertEquals(dto.getId(), dto.getItems().get(0).getRequestId());
+            assertEquals(1, dto.getItems().get(0).getUserId());
+        }
+    }
+
     /**
      * создание окружения
      */
@@ -185,13 +233,13 @@ public class ItemRequestServiceTest {
      */
     @AfterEach
     void clearEnvironment() {
-        String query = "ALTER TABLE users ALTER COLUMN id RESTART WITH 1";
+        String query = "ALTER SEQUENCE users_seq RESTART WITH 1";
         jdbcTemplate.update(query);
-        query = "ALTER TABLE items ALTER COLUMN id RESTART WITH 1";
+        query = "ALTER SEQUENCE items_seq RESTART WITH 1";
         jdbcTemplate.update(query);
-        query = "ALTER TABLE bookings ALTER COLUMN id RESTART WITH 1";
+        query = "ALTER SEQUENCE bookings_seq RESTART WITH 1";
         jdbcTemplate.update(query);
-        query = "ALTER TABLE requests ALTER COLUMN id RESTART WITH 1";
+        query = "ALTER SEQUENCE requests_seq RESTART WITH 1";
         jdbcTemplate.update(query);
     }
 }
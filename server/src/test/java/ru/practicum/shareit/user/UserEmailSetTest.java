@@ -0,0 +1,96 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ConcurrentCalls;
+import ru.practicum.shareit.exception.EmailUsedException;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static ru.practicum.shareit.user.UserEmailTest.emailUpdate;
+
+/**
+ * тестовый класс проверки занятости email по множеству email в памяти
+ */
+@SpringBootTest(properties = "shareit.users.email-set=true")
+class UserEmailSetTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * множество следует за созданием, сменой email и удалением пользователей
+     */
+    @Test
+    void test69_emailSetFollowsChanges() {
+        UserDto voldemar = userService.create(UserDto.builder().name("Voldemar").email("Voldemar@set.ru").build());
+        UserDto vika = userService.create(UserDto.builder().name("Vika").email("vika@set.ru").build());
+        assertThrows(EmailUsedException.class, () -> userService.create(UserDto.builder()
+                .name("Vova").email("VOLDEMAR@set.ru").build()));
+        assertThrows(EmailUsedException.class, () -> userService.update(vika.getId(),
+                emailUpdate("voldemar@SET.ru")));
+
+        userService.update(voldemar.getId(), emailUpdate("vova@set.ru"));
+        assertEquals("voldemar@set.ru", userService.update(vika.getId(), emailUpdate("voldemar@set.ru"))
+                .getEmail());
+        assertEquals("vika@set.ru", userService.create(UserDto.builder().name("Vika").email("vika@set.ru").build())
+                .getEmail());
+
+        userService.delete(voldemar.getId());
+        assertEquals("vova@set.ru", userService.create(UserDto.builder().name("Vova").email("vova@set.ru").build())
+                .getEmail());
+    }
+
+    /**
+     * из одновременных обновлений и созданий с одним email проходит только одно, остальные отклоняются
+     * до обращения к БД
+     */
+    @Test
+    void test70_concurrentEmailChanges() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < ConcurrentCalls.THREADS; i++) {
+            ids.add(userService.create(UserDto.builder().name("user" + i).email("user" + i + "@set.ru").build())
+                    .getId());
+        }
+        assertEquals(1, ConcurrentCalls.run(i -> userService.update(ids.get(i), emailUpdate("Same@set.ru"))));
+        assertEquals(1, countEmail("same@set.ru"));
+
+        assertEquals(1, ConcurrentCalls.run(i -> userService.create(UserDto.builder()
+                .name("new" + i).email(i % 2 == 0 ? "new@set.ru" : "NEW@set.ru").build())));
+        assertEquals(1, countEmail("new@set.ru"));
+        assertThrows(EmailUsedException.class, () -> userService.create(UserDto.builder()
+                .name("same").email("same@set.ru").build()));
+    }
+
+    /**
+     * очистка окружения: пользователи удаляются через сервис, чтобы освободить их email в множестве,
+     * остальные таблицы (в том числе данные других тестовых классов) очищаются целиком
+     */
+    @BeforeEach
+    @AfterEach
+    void clearEnvironment() {
+        for (UserDto user : userService.getAll()) {
+            userService.delete(user.getId());
+        }
+        jdbcTemplate.update("SET REFERENTIAL_INTEGRITY = FALSE");
+        for (String table : List.of("users", "requests", "items", "bookings", "comments")) {
+            jdbcTemplate.update("TRUNCATE TABLE " + table);
+            jdbcTemplate.update("ALTER SEQUENCE " + table + "_seq RESTART WITH 1");
+        }
+        jdbcTemplate.update("SET REFERENTIAL_INTEGRITY = TRUE");
+    }
+
+    private int countEmail(String email) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE email = ?", Integer.class, email);
+    }
+}
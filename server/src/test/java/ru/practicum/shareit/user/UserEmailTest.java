@@ -0,0 +1,93 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ConcurrentCalls;
+import ru.practicum.shareit.exception.EmailUsedException;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.UserUpdate;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * тестовый класс проверки занятости email запросом по индексу UQ_USER_EMAIL
+ */
+@SpringBootTest
+class UserEmailTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * email сохраняется в нижнем регистре и сравнивается без учёта регистра, в том числе с текущим email
+     */
+    @Test
+    void test67_caseInsensitiveEmail() {
+        UserDto voldemar = userService.create(UserDto.builder().name("Voldemar").email(" Voldemar@Email.ru").build());
+        assertEquals("voldemar@email.ru", voldemar.getEmail());
+        assertThrows(EmailUsedException.class, () -> userService.create(UserDto.builder()
+                .name("Vika").email("voldemar@email.ru").build()));
+        UserDto vika = userService.create(UserDto.builder().name("Vika").email("vika@email.ru").build());
+        assertThrows(EmailUsedException.class, () -> userService.update(vika.getId(),
+                emailUpdate("VOLDEMAR@email.ru")));
+        assertThrows(EmailUsedException.class, () -> userService.update(vika.getId(),
+                emailUpdate("Vika@email.ru")));
+
+        userService.update(voldemar.getId(), emailUpdate("Vova@email.ru"));
+        assertEquals("vova@email.ru", userService.getById(voldemar.getId()).getEmail());
+        assertEquals("voldemar@email.ru", userService.update(vika.getId(),
+                emailUpdate("voldemar@email.ru")).getEmail());
+    }
+
+    /**
+     * из одновременных обновлений и созданий с одним email сохраняется только одно
+     */
+    @Test
+    void test68_concurrentEmailChanges() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < ConcurrentCalls.THREADS; i++) {
+            ids.add(userService.create(UserDto.builder().name("user" + i).email("user" + i + "@email.ru").build())
+                    .getId());
+        }
+        assertEquals(1, ConcurrentCalls.run(i -> userService.update(ids.get(i), emailUpdate("same@email.ru"))));
+        assertEquals(1, countEmail("same@email.ru"));
+
+        assertEquals(1, ConcurrentCalls.run(i -> userService.create(UserDto.builder()
+                .name("new" + i).email("new@email.ru").build())));
+        assertEquals(1, countEmail("new@email.ru"));
+    }
+
+    /**
+     * очистка окружения (в том числе вещей и бронирований, оставшихся от других тестовых классов)
+     */
+    @BeforeEach
+    @AfterEach
+    void clearEnvironment() {
+        jdbcTemplate.update("SET REFERENTIAL_INTEGRITY = FALSE");
+        for (String table : List.of("users", "requests", "items", "bookings", "comments")) {
+            jdbcTemplate.update("TRUNCATE TABLE " + table);
+            jdbcTemplate.update("ALTER SEQUENCE " + table + "_seq RESTART WITH 1");
+        }
+        jdbcTemplate.update("SET REFERENTIAL_INTEGRITY = TRUE");
+    }
+
+    static UserUpdate emailUpdate(String email) {
+        UserUpdate update = new UserUpdate();
+        update.setEmail(email);
+        return update;
+    }
+
+    private int countEmail(String email) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE email = ?", Integer.class, email);
+    }
+}
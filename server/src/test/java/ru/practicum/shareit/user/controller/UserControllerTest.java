@@ -163,10 +163,10 @@ class UserControllerTest {
     }
 
     /**
-     * сброс автоинкремента в таблице users
+     * сброс последовательности id пользователей
      */
     private void clear() {
-        String query = "ALTER TABLE users ALTER COLUMN id RESTART WITH 1";
+        String query = "ALTER SEQUENCE users_seq RESTART WITH 1";
         jdbcTemplate.update(query);
     }
 }
\ No newline at end of file